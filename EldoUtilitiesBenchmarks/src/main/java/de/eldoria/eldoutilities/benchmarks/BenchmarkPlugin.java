@@ -0,0 +1,53 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import org.bukkit.plugin.Plugin;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Stubs a plugin instance, so benchmarks can run without a server.
+ * <p>
+ * Resources are loaded from the class path of the benchmarks. The data folder is a temporary directory.
+ */
+public final class BenchmarkPlugin {
+    private BenchmarkPlugin() {
+    }
+
+    /**
+     * Creates a new plugin stub.
+     *
+     * @param dataFolder data folder of the plugin
+     * @return plugin stub
+     */
+    public static Plugin create(Path dataFolder) {
+        Plugin plugin = Mockito.mock(Plugin.class);
+        Logger logger = Logger.getLogger("EldoUtilitiesBenchmarks");
+        logger.setLevel(Level.OFF);
+        Mockito.when(plugin.getLogger()).thenReturn(logger);
+        Mockito.when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        Mockito.when(plugin.getName()).thenReturn("EldoUtilitiesBenchmarks");
+        Mockito.when(plugin.getResource(Mockito.anyString())).thenAnswer(invocation ->
+                BenchmarkPlugin.class.getClassLoader().getResourceAsStream(invocation.getArgument(0)));
+        return plugin;
+    }
+
+    /**
+     * Deletes the data folder of a plugin stub.
+     *
+     * @param dataFolder data folder of the plugin
+     * @throws IOException if the folder could not be deleted
+     */
+    public static void delete(Path dataFolder) throws IOException {
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import de.eldoria.eldoutilities.localization.ILocalizer;
+import de.eldoria.eldoutilities.localization.Replacement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalizerBenchmark {
+    private Path dataFolder;
+    private ILocalizer localizer;
+
+    @Setup
+    public void setup() throws IOException {
+        dataFolder = Files.createTempDirectory("eldoutilities-benchmark");
+        localizer = ILocalizer.create(BenchmarkPlugin.create(dataFolder), "en_US");
+        localizer.setLocale("en_US");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkPlugin.delete(dataFolder);
+    }
+
+    @Benchmark
+    public String localizeSimple() {
+        return localizer.localize("benchmark.simple");
+    }
+
+    @Benchmark
+    public String localizeReplacements() {
+        return localizer.localize("benchmark.replacement",
+                Replacement.create("PLAYER", "Notch"),
+                Replacement.create("AMOUNT", 1337),
+                Replacement.create("WORLD", "world_nether"));
+    }
+
+    @Benchmark
+    public String localizeEmbedded() {
+        return localizer.localize("$benchmark.embedded$: $benchmark.replacement$",
+                Replacement.create("PLAYER", "Notch"),
+                Replacement.create("AMOUNT", 1337),
+                Replacement.create("WORLD", "world_nether"));
+    }
+}
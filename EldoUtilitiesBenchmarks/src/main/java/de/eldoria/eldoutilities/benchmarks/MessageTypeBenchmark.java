@@ -0,0 +1,34 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import de.eldoria.eldoutilities.messages.MessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageTypeBenchmark {
+    @Param({
+            "A plain message without any reset.",
+            "§6Header§r: some text §r§lbold§r and §r§oitalic§r parts."
+    })
+    public String message;
+
+    @Benchmark
+    public String forceColor() {
+        return MessageType.NORMAL.forceColor(message);
+    }
+}
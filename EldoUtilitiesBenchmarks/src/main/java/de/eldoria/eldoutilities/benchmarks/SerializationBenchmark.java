@@ -0,0 +1,62 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import de.eldoria.eldoutilities.serialization.SerializationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private Sample sample;
+    private Map<String, Object> serialized;
+
+    @Setup
+    public void setup() {
+        sample = new Sample();
+        serialized = SerializationUtil.objectToMap(sample);
+    }
+
+    @Benchmark
+    public Map<String, Object> objectToMap() {
+        return SerializationUtil.objectToMap(sample);
+    }
+
+    @Benchmark
+    public Sample mapOnObject() {
+        Sample target = new Sample();
+        SerializationUtil.mapOnObject(serialized, target);
+        return target;
+    }
+
+    public static class BaseSample {
+        private String name = "sample";
+        private int id = 42;
+        private transient Object cache = new Object();
+    }
+
+    public static class Sample extends BaseSample {
+        private double x = 1.5;
+        private double y = 64;
+        private double z = -1.5;
+        private boolean enabled = true;
+        private long created = 1609459200000L;
+        private List<String> tags = Arrays.asList("one", "two", "three");
+    }
+}
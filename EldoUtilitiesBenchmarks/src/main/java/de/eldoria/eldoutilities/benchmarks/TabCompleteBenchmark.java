@@ -0,0 +1,60 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import de.eldoria.eldoutilities.simplecommands.TabCompleteUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TabCompleteBenchmark {
+    @Param({"", "a", "abc"})
+    public String value;
+
+    @Param({"20", "500"})
+    public int inputCount;
+
+    private String[] inputArray;
+    private List<String> inputList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        inputArray = new String[inputCount];
+        for (int i = 0; i < inputCount; i++) {
+            char[] chars = new char[8];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(4));
+            }
+            inputArray[i] = new String(chars);
+        }
+        inputList = Arrays.asList(inputArray);
+    }
+
+    @Benchmark
+    public List<String> completeArray() {
+        return TabCompleteUtil.complete(value, inputArray);
+    }
+
+    @Benchmark
+    public List<String> completeCollection() {
+        return TabCompleteUtil.complete(value, inputList);
+    }
+}
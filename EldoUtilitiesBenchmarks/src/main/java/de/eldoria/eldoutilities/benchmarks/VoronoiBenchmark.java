@@ -0,0 +1,81 @@
+package de.eldoria.eldoutilities.benchmarks;
+
+import de.eldoria.eldoutilities.voronoi.FlatVoronoi;
+import de.eldoria.eldoutilities.voronoi.Voronoi;
+import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.impl.VectorDimensionAdapter;
+import de.eldoria.eldoutilities.voronoi.impl.VectorFeature;
+import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoronoiBenchmark {
+    private static final int SEARCHES = 1 << 12;
+
+    @Param({"1000", "100000"})
+    public int features;
+
+    @Param({"5000", "1000000"})
+    public int range;
+
+    private Voronoi<Vector, VectorFeature> voronoi;
+    private FlatVoronoi<Vector, VectorFeature> flatVoronoi;
+    private Vector[] searches;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        VectorDimensionAdapter adapter = new VectorDimensionAdapter();
+        VoronoiSettings<Vector> settings = new VoronoiSettings<>(30000000, new Vector(), 1024);
+        voronoi = Voronoi.create(settings, adapter);
+        flatVoronoi = FlatVoronoi.create(settings, adapter);
+
+        List<VectorFeature> featureList = new ArrayList<>(features);
+        for (int i = 0; i < features; i++) {
+            featureList.add(new VectorFeature(new Vector(random.nextInt(range * 2) - range, 0, random.nextInt(range * 2) - range)));
+        }
+        voronoi.build(featureList);
+        featureList.forEach(flatVoronoi::addFeature);
+
+        searches = new Vector[SEARCHES];
+        for (int i = 0; i < SEARCHES; i++) {
+            searches[i] = new Vector(random.nextInt(range * 2) - range, 0, random.nextInt(range * 2) - range);
+        }
+    }
+
+    @Benchmark
+    public WeightedFeature<Vector, VectorFeature> getClosestFeature() {
+        return voronoi.getClosestFeature(nextSearch());
+    }
+
+    @Benchmark
+    public WeightedFeature<Vector, VectorFeature> flatGetClosestFeature() {
+        return flatVoronoi.getClosestFeature(nextSearch());
+    }
+
+    private Vector nextSearch() {
+        return searches[index++ & SEARCHES - 1];
+    }
+}
@@ -2,6 +2,7 @@ package de.eldoria.eldoutilities.conversation;
 
 import de.eldoria.eldoutilities.core.EldoUtilities;
 import de.eldoria.eldoutilities.messages.MessageType;
+import de.eldoria.eldoutilities.scheduling.ScheduledAction;
 import org.bukkit.conversations.*;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -17,6 +18,7 @@ public class ConversationRequester implements ConversationAbandonedListener, Con
 
     private final Plugin plugin;
     private final Map<Player, Long> sessions = new HashMap<>();
+    private final Map<Player, ScheduledAction> timeouts = new HashMap<>();
 
     private ConversationRequester(Plugin plugin) {
         this.plugin = plugin;
@@ -54,6 +56,7 @@ public class ConversationRequester implements ConversationAbandonedListener, Con
         long sessionId = System.currentTimeMillis();
         data.put("id", sessionId);
         sessions.put(player, sessionId);
+        cancelTimeout(player);
         EldoConversation conversation = EldoConversation.builder(plugin, player,
                 getSimplePromt(text, validation, callback))
                 .ofType(MessageType.NORMAL)
@@ -65,13 +68,18 @@ public class ConversationRequester implements ConversationAbandonedListener, Con
         conversation.addConversationAbandonedListener(this);
 
         if (timeout > 0) {
-            EldoUtilities.getDelayedActions().schedule(() -> {
-                if (sessions.containsKey(player)) {
-                    if (sessions.get(player) == sessionId) {
-                        conversation.abandon(new ConversationAbandonedEvent(conversation, this));
-                    }
-                }
-            }, timeout);
+            // the timeout is cancelled when the conversation ends. No need to check the session here.
+            timeouts.put(player, EldoUtilities.getDelayedActions().schedule(() -> {
+                timeouts.remove(player);
+                conversation.abandon(new ConversationAbandonedEvent(conversation, this));
+            }, timeout));
+        }
+    }
+
+    private void cancelTimeout(Player player) {
+        ScheduledAction action = timeouts.remove(player);
+        if (action != null) {
+            action.cancel();
         }
     }
 
@@ -82,6 +90,9 @@ public class ConversationRequester implements ConversationAbandonedListener, Con
             Long aLong = sessions.get(abandonedEvent.getContext().getForWhom());
             if (aLong != null && aLong.equals(id)) {
                 sessions.remove(abandonedEvent.getContext().getForWhom());
+                if (abandonedEvent.getContext().getForWhom() instanceof Player) {
+                    cancelTimeout((Player) abandonedEvent.getContext().getForWhom());
+                }
             }
         }
     }
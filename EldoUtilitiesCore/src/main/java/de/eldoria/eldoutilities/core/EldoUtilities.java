@@ -10,6 +10,7 @@ import de.eldoria.eldoutilities.scheduling.DelayedActions;
 import de.eldoria.eldoutilities.serialization.MapEntry;
 import de.eldoria.eldoutilities.serialization.util.ArmorStandWrapper;
 import de.eldoria.eldoutilities.threading.AsyncSyncingCallbackExecutor;
+import de.eldoria.eldoutilities.threading.TickSampler;
 import de.eldoria.eldoutilities.utils.ReflectionUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
@@ -32,6 +33,7 @@ public final class EldoUtilities {
     private static InventoryActionHandler inventoryActionHandler = null;
     private static AsyncSyncingCallbackExecutor asyncSyncingCallbackExecutor = null;
     private static ConversationRequester conversationRequester = null;
+    private static TickSampler tickSampler = null;
     private static ConfigFileWrapper configuration;
     private static Plugin instanceOwner;
 
@@ -70,6 +72,22 @@ public final class EldoUtilities {
         return asyncSyncingCallbackExecutor;
     }
 
+    /**
+     * Get the tick sampler of this instance.
+     * <p>
+     * The sampler is started on the first call.
+     *
+     * @return tick sampler
+     * @since 1.8.0
+     */
+    public static TickSampler getTickSampler() {
+        if (tickSampler == null) {
+            tickSampler = TickSampler.start(instanceOwner);
+            logger().config("TickSampler ignited.");
+        }
+        return tickSampler;
+    }
+
     public static Logger logger() {
         return instanceOwner.getLogger();
     }
@@ -120,6 +138,10 @@ public final class EldoUtilities {
             asyncSyncingCallbackExecutor.shutdown();
             asyncSyncingCallbackExecutor = null;
         }
+        if (tickSampler != null) {
+            tickSampler.shutdown();
+            tickSampler = null;
+        }
         if (inventoryActionHandler != null) {
             inventoryActionHandler = null;
         }
@@ -2,6 +2,7 @@ package de.eldoria.eldoutilities.core.commands;
 
 import de.eldoria.eldoutilities.debug.DebugSettings;
 import de.eldoria.eldoutilities.debug.DebugUtil;
+import de.eldoria.eldoutilities.debug.payload.TaskMetricsDump;
 import de.eldoria.eldoutilities.messages.MessageChannel;
 import de.eldoria.eldoutilities.messages.MessageType;
 import de.eldoria.eldoutilities.simplecommands.EldoCommand;
@@ -32,7 +33,7 @@ public class EldoDebug extends EldoCommand {
             return true;
         }
 
-        if (argumentsInvalid(sender, args, 1, "<plugin name>")) {
+        if (argumentsInvalid(sender, args, 1, "<plugin name> [metrics]")) {
             return true;
         }
 
@@ -50,6 +51,12 @@ public class EldoDebug extends EldoCommand {
             return true;
         }
 
+        if (args.length > 1 && "metrics".equalsIgnoreCase(args[1])) {
+            messageSender().send(MessageChannel.CHAT, MessageType.NORMAL, sender,
+                    "Task metrics of " + plugin.getName() + ":\n" + TaskMetricsDump.dump(plugin));
+            return true;
+        }
+
         DebugUtil.dispatchDebug(sender, plugin, DebugSettings.DEFAULT);
         return true;
     }
@@ -59,6 +66,9 @@ public class EldoDebug extends EldoCommand {
         if (args.length == 1) {
             return TabCompleteUtil.complete(args[0], getPlugins());
         }
+        if (args.length == 2) {
+            return TabCompleteUtil.complete(args[1], "metrics");
+        }
         return Collections.emptyList();
     }
 
@@ -5,8 +5,11 @@ import de.eldoria.eldoutilities.debug.payload.ConfigDump;
 import de.eldoria.eldoutilities.debug.payload.LogMeta;
 import de.eldoria.eldoutilities.debug.payload.PluginMeta;
 import de.eldoria.eldoutilities.debug.payload.ServerMeta;
+import de.eldoria.eldoutilities.debug.payload.TaskMetricsDump;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Arrays;
+
 public final class DebugPayload extends DebugPayloadData {
 
     private DebugPayload(PluginMetaData pluginMeta, ServerMetaData serverMeta, EntryData[] additionalPluginMeta,
@@ -34,7 +37,9 @@ public final class DebugPayload extends DebugPayloadData {
     public static DebugPayloadData create(Plugin plugin, DebugSettings settings) {
         PluginMetaData pluginMeta = PluginMeta.create(plugin);
         ServerMetaData serverMeta = ServerMeta.create();
-        EntryData[] additionalPluginMeta = DebugUtil.getAdditionalPluginMeta(plugin);
+        EntryData[] providedMeta = DebugUtil.getAdditionalPluginMeta(plugin);
+        EntryData[] additionalPluginMeta = Arrays.copyOf(providedMeta, providedMeta.length + 1);
+        additionalPluginMeta[providedMeta.length] = TaskMetricsDump.create(plugin);
         LogData latestLog = LogMeta.create(plugin, settings);
         EntryData[] configDumps = ConfigDump.create(plugin, settings);
         return new DebugPayload(pluginMeta, serverMeta, additionalPluginMeta, latestLog, configDumps);
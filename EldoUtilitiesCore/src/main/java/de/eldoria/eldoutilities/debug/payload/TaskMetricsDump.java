@@ -0,0 +1,44 @@
+package de.eldoria.eldoutilities.debug.payload;
+
+import de.eldoria.eldoutilities.debug.data.EntryData;
+import de.eldoria.eldoutilities.threading.TaskMetrics;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Debug entry which contains the {@link TaskMetrics} of all tasks of a plugin.
+ *
+ * @since 1.8.0
+ */
+public class TaskMetricsDump extends EntryData {
+
+    public TaskMetricsDump(String content) {
+        super("Task Metrics", content);
+    }
+
+    /**
+     * Create a new task metrics dump.
+     *
+     * @param plugin plugin to dump the metrics for
+     * @return metrics dump
+     */
+    public static EntryData create(Plugin plugin) {
+        return new TaskMetricsDump(dump(plugin));
+    }
+
+    /**
+     * Get the metrics of all tasks of a plugin as text.
+     *
+     * @param plugin plugin to dump the metrics for
+     * @return one line per task
+     */
+    public static String dump(Plugin plugin) {
+        List<TaskMetrics> metrics = TaskMetrics.getMetrics(plugin);
+        if (metrics.isEmpty()) {
+            return "No active tasks.";
+        }
+        return metrics.stream().map(TaskMetrics::toString).collect(Collectors.joining("\n"));
+    }
+}
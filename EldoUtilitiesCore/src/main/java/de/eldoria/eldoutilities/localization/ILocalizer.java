@@ -1,6 +1,8 @@
 package de.eldoria.eldoutilities.localization;
 
+import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Locale;
@@ -118,4 +120,77 @@ public interface ILocalizer {
      * @since 1.2.3
      */
     String localize(String message, Replacement... replacements);
+
+    /**
+     * Get a message in the locale of a sender.
+     * <p>
+     * The locale of the server is used if the sender is not a player or player locales are disabled.
+     *
+     * @param sender       sender which will receive the message
+     * @param key          message key
+     * @param replacements replacements for replacement keys
+     * @return message with replaced replacements if present.
+     * @since 1.8.0
+     */
+    default String getMessage(CommandSender sender, String key, Replacement... replacements) {
+        return getMessage(key, replacements);
+    }
+
+    /**
+     * Translates a String with Placeholders in the locale of a sender.
+     * <p>
+     * The locale of the server is used if the sender is not a player or player locales are disabled.
+     *
+     * @param sender       sender which will receive the message
+     * @param message      Message to translate
+     * @param replacements Replacements in the right order.
+     * @return Replaced Messages
+     * @since 1.8.0
+     */
+    default String localize(CommandSender sender, String message, Replacement... replacements) {
+        return localize(message, replacements);
+    }
+
+    /**
+     * Set if messages for players should use the locale of the player client.
+     * <p>
+     * The locale files of a player are loaded on first use. A locale like {@code de_AT} falls back to {@code de} and
+     * then to the fallback locale. Players with a locale without locale files get the locale of the server.
+     *
+     * @param usePlayerLocale true to use the locale of the player
+     * @since 1.8.0
+     */
+    default void setUsePlayerLocale(boolean usePlayerLocale) {
+    }
+
+    /**
+     * Check if messages for players use the locale of the player client.
+     *
+     * @return true if the locale of the player is used
+     * @since 1.8.0
+     */
+    default boolean isUsePlayerLocale() {
+        return false;
+    }
+
+    /**
+     * Set the size of the cache for rendered messages.
+     * <p>
+     * The cache is disabled by default. It is cleared when the locale is changed or locale codes are added.
+     *
+     * @param size maximal amount of cached messages. 0 disables the cache.
+     * @since 1.8.0
+     */
+    default void setCacheSize(int size) {
+    }
+
+    /**
+     * Get the cache for rendered messages.
+     *
+     * @return cache or null if the cache is disabled
+     * @since 1.8.0
+     */
+    default @Nullable MessageCache getCache() {
+        return null;
+    }
 }
@@ -0,0 +1,68 @@
+package de.eldoria.eldoutilities.localization;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The messages of a locale flattened into a single map.
+ * <p>
+ * A bundle contains the messages of its parent overridden by the messages of its layers. Empty messages do not
+ * override the message of the parent. The templates of the messages are compiled on first use.
+ *
+ * @since 1.8.0
+ */
+final class LocaleBundle {
+    private final String locale;
+    private final Map<String, String> messages;
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    private LocaleBundle(String locale, Map<String, String> messages) {
+        this.locale = locale;
+        this.messages = messages;
+    }
+
+    /**
+     * Create a new bundle.
+     *
+     * @param locale locale code of the bundle
+     * @param parent bundle which provides missing messages
+     * @param layers resource bundles ordered from the lowest to the highest priority
+     * @return new bundle
+     */
+    static LocaleBundle of(String locale, @Nullable LocaleBundle parent, List<ResourceBundle> layers) {
+        Map<String, String> messages = parent == null ? new HashMap<>() : new HashMap<>(parent.messages);
+        for (ResourceBundle layer : layers) {
+            for (String key : layer.keySet()) {
+                String value = layer.getString(key);
+                if (!value.isEmpty() || !messages.containsKey(key)) {
+                    messages.put(key, value);
+                }
+            }
+        }
+        return new LocaleBundle(locale, messages);
+    }
+
+    /**
+     * Get the compiled message of a key.
+     *
+     * @param key key of message
+     * @return template or null if the key is missing
+     */
+    @Nullable
+    MessageTemplate getTemplate(String key) {
+        MessageTemplate template = templates.get(key);
+        if (template != null) return template;
+        String message = messages.get(key);
+        if (message == null) return null;
+        return templates.computeIfAbsent(key, k -> MessageTemplate.compile(message));
+    }
+
+    String getLocale() {
+        return locale;
+    }
+}
@@ -1,5 +1,7 @@
 package de.eldoria.eldoutilities.localization;
 
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Nullable;
 
@@ -11,6 +13,7 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -33,17 +36,21 @@ import java.util.stream.Stream;
  * @since 1.0.0
  */
 public class Localizer implements ILocalizer {
-    private static final Pattern EMBED_LOCALIZATION_CODE = Pattern.compile("\\$([a-zA-Z.]+?)\\$");
-    private static final Pattern LOCALIZATION_CODE = Pattern.compile("([a-zA-Z.]+?)");
-
-    private final ResourceBundle fallbackLocaleFile;
+    private static final Pattern LOCALE_CODE = Pattern.compile("[a-zA-Z]{2}(_[a-zA-Z]{2})?");
+    private final LocaleBundle fallbackBundle;
     private final Plugin plugin;
     private final String localesPath;
     private final String localesPrefix;
     private final String[] includedLocales;
     private final Pattern localePattern = Pattern.compile("_(([a-zA-Z]{2})(_[a-zA-Z]{2})?)\\.properties");
     private final Map<String, String> runtimeLocaleCodes = new HashMap<>();
-    private ResourceBundle localeFile;
+    // bundles of player locales
+    private final Map<String, LocaleBundle> bundles = new ConcurrentHashMap<>();
+    // codes of the locale files in the locales directory by their normalized code. Loaded on first use.
+    private volatile Map<String, String> localeFiles = null;
+    private volatile LocaleBundle serverBundle;
+    private volatile boolean usePlayerLocale = false;
+    private volatile MessageCache cache = null;
     private boolean checked = false;
 
     /**
@@ -69,7 +76,9 @@ public class Localizer implements ILocalizer {
         this.localesPath = localesPath;
         this.localesPrefix = localesPrefix;
         this.includedLocales = includedLocales;
-        fallbackLocaleFile = ResourceBundle.getBundle(localesPrefix, fallbackLocale, plugin.getClass().getClassLoader());
+        ResourceBundle fallbackLocaleFile = ResourceBundle.getBundle(localesPrefix, fallbackLocale, plugin.getClass().getClassLoader());
+        fallbackBundle = LocaleBundle.of(fallbackLocale.toString(), null, Collections.singletonList(fallbackLocaleFile));
+        serverBundle = fallbackBundle;
         LOCALIZER.put(plugin.getClass(), this);
         createDefaults();
     }
@@ -110,14 +119,127 @@ public class Localizer implements ILocalizer {
             checked = true;
         }
 
-        String localeFile = localesPrefix + "_" + language + ".properties";
+        List<ResourceBundle> layers = loadLayers(language);
+        if (layers.isEmpty()) {
+            plugin.getLogger().warning("Could not load locale file "
+                    + Paths.get(localesPath, localesPrefix + "_" + language + ".properties") + ". Using fallback locale.");
+        }
+        serverBundle = LocaleBundle.of(language, fallbackBundle, layers);
+        localeFiles = null;
+        bundles.clear();
+        clearCache();
+    }
+
+    /**
+     * Load the locale files of a locale code.
+     * <p>
+     * A code with a country also loads the file of its language. {@code de_AT} loads {@code de} and {@code de_AT}.
+     *
+     * @param code locale code
+     * @return loaded files ordered from the lowest to the highest priority
+     */
+    private List<ResourceBundle> loadLayers(String code) {
+        List<ResourceBundle> layers = new ArrayList<>(2);
+        int separator = code.indexOf('_');
+        if (separator != -1) {
+            ResourceBundle language = loadLocaleFile(code.substring(0, separator));
+            if (language != null) layers.add(language);
+        }
+        ResourceBundle locale = loadLocaleFile(code);
+        if (locale != null) layers.add(locale);
+        return layers;
+    }
 
-        try (InputStream stream = Files.newInputStream(Paths.get(plugin.getDataFolder().toString(), localesPath, localeFile))) {
-            this.localeFile = new PropertyResourceBundle(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    @Nullable
+    private ResourceBundle loadLocaleFile(String code) {
+        String localeFile = localesPrefix + "_" + code + ".properties";
+        Path path = Paths.get(plugin.getDataFolder().toString(), localesPath, localeFile);
+        if (!Files.exists(path)) return null;
+        try (InputStream stream = Files.newInputStream(path)) {
+            return new PropertyResourceBundle(new InputStreamReader(stream, StandardCharsets.UTF_8));
         } catch (IOException e) {
             plugin.getLogger().log(Level.WARNING, "Could not load locale file " + Paths.get(localesPath, localeFile).toString(), e);
-            this.localeFile = fallbackLocaleFile;
+            return null;
+        }
+    }
+
+    /**
+     * Get the bundle which is used for a sender.
+     *
+     * @param sender sender to get the bundle for
+     * @return the bundle of the player locale or the server locale.
+     */
+    private LocaleBundle bundle(@Nullable CommandSender sender) {
+        LocaleBundle server = serverBundle;
+        if (!usePlayerLocale || !(sender instanceof Player)) return server;
+        String locale = normalize(((Player) sender).getLocale());
+        // the locale is sent by the client. Only valid codes are used to look up files.
+        if (!LOCALE_CODE.matcher(locale).matches() || locale.equals(normalize(server.getLocale()))) return server;
+        LocaleBundle bundle = bundles.get(locale);
+        if (bundle != null) return bundle;
+
+        // locales without files use the server locale and are not cached. Only locales with files are kept in the map.
+        Map<String, String> files = localeFiles();
+        int separator = locale.indexOf('_');
+        List<ResourceBundle> layers = new ArrayList<>(2);
+        // the files are loaded outside of the map. Loading inside computeIfAbsent would block other lookups.
+        if (separator != -1 && files.containsKey(locale.substring(0, separator))) {
+            ResourceBundle language = loadLocaleFile(files.get(locale.substring(0, separator)));
+            if (language != null) layers.add(language);
+        }
+        if (files.containsKey(locale)) {
+            ResourceBundle file = loadLocaleFile(files.get(locale));
+            if (file != null) layers.add(file);
         }
+        if (layers.isEmpty()) return server;
+        LocaleBundle loaded = LocaleBundle.of(locale, fallbackBundle, layers);
+        bundle = bundles.putIfAbsent(locale, loaded);
+        if (bundle != null) return bundle;
+        // the server locale may have changed while loading. The bundles were cleared before our bundle was added.
+        if (serverBundle != server) {
+            bundles.remove(locale, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Get the codes of the locale files in the locales directory.
+     *
+     * @return codes used in the file names by their normalized code
+     */
+    private Map<String, String> localeFiles() {
+        Map<String, String> codes = localeFiles;
+        if (codes != null) return codes;
+        codes = new HashMap<>();
+        Path messages = Paths.get(plugin.getDataFolder().toString(), localesPath);
+        if (Files.isDirectory(messages)) {
+            try (Stream<Path> files = Files.list(messages)) {
+                for (Path path : files.collect(Collectors.toList())) {
+                    String name = path.getFileName().toString();
+                    if (!name.startsWith(localesPrefix)) continue;
+                    Matcher matcher = localePattern.matcher(name.substring(localesPrefix.length()));
+                    if (matcher.matches()) {
+                        codes.put(normalize(matcher.group(1)), matcher.group(1));
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to list locale files.", e);
+            }
+        }
+        localeFiles = codes;
+        return codes;
+    }
+
+    /**
+     * Normalize a locale code like {@code de_at} or {@code de-AT} to {@code de_AT}.
+     *
+     * @param locale locale code
+     * @return normalized locale code
+     */
+    private static String normalize(String locale) {
+        String[] parts = locale.split("[_-]", 2);
+        if (parts.length == 1) return parts[0].toLowerCase(Locale.ROOT);
+        return parts[0].toLowerCase(Locale.ROOT) + "_" + parts[1].toUpperCase(Locale.ROOT);
     }
 
     /**
@@ -130,28 +252,36 @@ public class Localizer implements ILocalizer {
      */
     @Override
     public String getMessage(String key, Replacement... replacements) {
-        String result = null;
-        if (localeFile.containsKey(key)) {
-            result = localeFile.getString(key);
-            if (result.isEmpty()) {
-                if (fallbackLocaleFile.containsKey(key)) {
-                    result = fallbackLocaleFile.getString(key);
-                }
-            }
-        } else if (fallbackLocaleFile.containsKey(key)) {
-            result = fallbackLocaleFile.getString(key);
-        }
+        MessageCache cache = this.cache;
+        // read before the bundle. Messages of a bundle which was replaced meanwhile are not cached.
+        long generation = generation(cache);
+        return getMessage(cache, generation, serverBundle, key, replacements);
+    }
+
+    @Override
+    public String getMessage(CommandSender sender, String key, Replacement... replacements) {
+        MessageCache cache = this.cache;
+        long generation = generation(cache);
+        return getMessage(cache, generation, bundle(sender), key, replacements);
+    }
+
+    private static long generation(@Nullable MessageCache cache) {
+        return cache == null ? 0 : cache.getGeneration();
+    }
+
+    private String getMessage(@Nullable MessageCache cache, long generation, LocaleBundle bundle, String key,
+                              Replacement... replacements) {
+        MessageTemplate template = bundle.getTemplate(key);
 
-        if (result == null) {
+        if (template == null) {
             plugin.getLogger().warning("Key " + key + " is missing in fallback file.");
             return "";
         }
 
-        for (Replacement replacement : replacements) {
-            result = replacement.invoke(result);
+        if (cache == null || !template.hasPlaceholders()) {
+            return template.render(replacements);
         }
-
-        return result;
+        return cache.get(generation, bundle.getLocale(), key, replacements, () -> template.render(replacements));
     }
 
     private void createOrUpdateLocaleFiles() {
@@ -345,29 +475,63 @@ public class Localizer implements ILocalizer {
      */
     @Override
     public String localize(String message, Replacement... replacements) {
+        MessageCache cache = this.cache;
+        long generation = generation(cache);
+        return localize(cache, generation, serverBundle, message, replacements);
+    }
+
+    @Override
+    public String localize(CommandSender sender, String message, Replacement... replacements) {
+        MessageCache cache = this.cache;
+        long generation = generation(cache);
+        return localize(cache, generation, bundle(sender), message, replacements);
+    }
+
+    private String localize(@Nullable MessageCache cache, long generation, LocaleBundle bundle, String message,
+                            Replacement... replacements) {
         if (message == null) {
             return null;
         }
 
-        // If the matcher doesn't find any key we assume its a simple message.
-        if (LOCALIZATION_CODE.matcher(message).matches()) {
-            return getMessage(message, replacements);
+        // If the message is a single key we assume its a simple message.
+        if (codeEnd(message, -1) == message.length()) {
+            return getMessage(cache, generation, bundle, message, replacements);
         }
 
-        // find locale codes in message
-        Matcher matcher = EMBED_LOCALIZATION_CODE.matcher(message);
-        List<String> keys = new ArrayList<>();
-        while (matcher.find()) {
-            keys.add(matcher.group(1));
+        // replace locale codes like $key$ in message
+        int start = message.indexOf('$');
+        if (start == -1) return message;
+        StringBuilder builder = new StringBuilder(message.length());
+        int last = 0;
+        while (start != -1) {
+            int end = codeEnd(message, start);
+            if (end == start || end == message.length() || message.charAt(end) != '$') {
+                start = message.indexOf('$', start + 1);
+                continue;
+            }
+            builder.append(message, last, start)
+                    .append(getMessage(cache, generation, bundle, message.substring(start + 1, end), replacements));
+            last = end + 1;
+            start = message.indexOf('$', last);
         }
+        return builder.append(message, last, message.length()).toString();
+    }
 
-
-        String result = message;
-        for (String match : keys) {
-            //Replace current locale code with result
-            result = result.replace("$" + match + "$", getMessage(match, replacements));
+    /**
+     * Find the end of a locale code.
+     *
+     * @param message message
+     * @param start   index before the first char of the code
+     * @return index of the first char after the code or the start if there is no code.
+     */
+    private static int codeEnd(String message, int start) {
+        int index = start + 1;
+        while (index < message.length()) {
+            char c = message.charAt(index);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '.')) break;
+            index++;
         }
-        return result;
+        return index == start + 1 ? start : index;
     }
 
     /**
@@ -383,5 +547,32 @@ public class Localizer implements ILocalizer {
     @Override
     public void addLocaleCodes(Map<String, String> runtimeLocaleCodes) {
         this.runtimeLocaleCodes.putAll(runtimeLocaleCodes);
+        clearCache();
+    }
+
+    @Override
+    public void setUsePlayerLocale(boolean usePlayerLocale) {
+        this.usePlayerLocale = usePlayerLocale;
+        clearCache();
+    }
+
+    @Override
+    public boolean isUsePlayerLocale() {
+        return usePlayerLocale;
+    }
+
+    @Override
+    public void setCacheSize(int size) {
+        cache = size > 0 ? new MessageCache(size) : null;
+    }
+
+    @Override
+    public @Nullable MessageCache getCache() {
+        return cache;
+    }
+
+    private void clearCache() {
+        MessageCache cache = this.cache;
+        if (cache != null) cache.clear();
     }
 }
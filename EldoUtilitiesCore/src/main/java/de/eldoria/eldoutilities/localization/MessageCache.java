@@ -0,0 +1,185 @@
+package de.eldoria.eldoutilities.localization;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of rendered messages.
+ * <p>
+ * Messages are cached by locale, message key and the keys and values of their replacements. If the cache is full the
+ * least recently used message is removed.
+ * <p>
+ * The cache is thread safe. Messages are rendered outside of the lock. A message whose rendering started before the
+ * cache was {@link #clear() cleared} is returned but not cached.
+ *
+ * @since 1.8.0
+ */
+public final class MessageCache {
+    private final int maxSize;
+    private final Map<CacheKey, String> messages;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // incremented by every clear. Guarded by the lock of messages for writes.
+    private volatile long generation = 0;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxSize maximal amount of cached messages
+     */
+    public MessageCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size has to be at least 1.");
+        }
+        this.maxSize = maxSize;
+        messages = new LinkedHashMap<CacheKey, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+                return size() > MessageCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get a rendered message from the cache or render it.
+     *
+     * @param locale       locale of the message
+     * @param key          key of the message
+     * @param replacements replacements of the message
+     * @param renderer     renderer which is called if the message is not cached
+     * @return rendered message
+     */
+    public String get(String locale, String key, Replacement[] replacements, Supplier<String> renderer) {
+        return get(generation, locale, key, replacements, renderer);
+    }
+
+    /**
+     * Get a rendered message from the cache or render it.
+     * <p>
+     * The generation has to be read before the state the renderer depends on. The rendered message is not cached if
+     * the cache was cleared since then.
+     *
+     * @param generation   generation of the cache when the rendering started
+     * @param locale       locale of the message
+     * @param key          key of the message
+     * @param replacements replacements of the message
+     * @param renderer     renderer which is called if the message is not cached
+     * @return rendered message
+     */
+    public String get(long generation, String locale, String key, Replacement[] replacements,
+                      Supplier<String> renderer) {
+        CacheKey cacheKey = new CacheKey(locale, key, replacements);
+        String message;
+        synchronized (messages) {
+            message = messages.get(cacheKey);
+        }
+        if (message != null) {
+            hits.increment();
+            return message;
+        }
+        misses.increment();
+        message = renderer.get();
+        synchronized (messages) {
+            // a message rendered before a clear may be outdated.
+            if (this.generation == generation) {
+                messages.put(cacheKey, message);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Remove all cached messages.
+     */
+    public void clear() {
+        synchronized (messages) {
+            generation++;
+            messages.clear();
+        }
+    }
+
+    /**
+     * Get the generation of the cache. The generation changes every time the cache is cleared.
+     *
+     * @return generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        synchronized (messages) {
+            return messages.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the share of requests which were served from the cache.
+     *
+     * @return hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Message cache: size %d/%d, hits %d, misses %d, hit rate %.2f",
+                size(), maxSize, getHits(), getMisses(), getHitRate());
+    }
+
+    private static final class CacheKey {
+        private final String locale;
+        private final String key;
+        // key, value and case sensitivity of every replacement. Replacements are mutable.
+        private final Object[] replacements;
+        private final int hash;
+
+        private CacheKey(String locale, String key, Replacement[] replacements) {
+            this.locale = locale;
+            this.key = key;
+            this.replacements = new Object[replacements.length * 3];
+            for (int i = 0; i < replacements.length; i++) {
+                Replacement replacement = replacements[i];
+                this.replacements[i * 3] = replacement.getKey();
+                this.replacements[i * 3 + 1] = replacement.getValue();
+                this.replacements[i * 3 + 2] = replacement.isCaseSensitive();
+            }
+            hash = 31 * (31 * Objects.hashCode(locale) + key.hashCode()) + Arrays.hashCode(this.replacements);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return hash == cacheKey.hash
+                    && Objects.equals(locale, cacheKey.locale)
+                    && key.equals(cacheKey.key)
+                    && Arrays.equals(replacements, cacheKey.replacements);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
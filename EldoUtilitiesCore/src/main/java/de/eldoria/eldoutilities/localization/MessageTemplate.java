@@ -0,0 +1,113 @@
+package de.eldoria.eldoutilities.localization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message which is split once into literal segments and placeholder slots.
+ * <p>
+ * A placeholder is a name between two {@code %} which consists of letters, digits, {@code _}, {@code .} and
+ * {@code -}, like {@code %PLAYER%}. Other uses of {@code %} stay literal text.
+ * <p>
+ * Rendering inserts the values of the matching {@link Replacement}s in a single pass. Values are inserted as they are
+ * and are not scanned for placeholders again. Placeholders without a matching replacement are kept.
+ * <p>
+ * Templates are immutable and can be rendered from any thread.
+ *
+ * @since 1.8.0
+ */
+public final class MessageTemplate {
+    private final String message;
+    // literals[i] is followed by slots[i]. The last literal has no slot.
+    private final String[] literals;
+    private final String[] slots;
+
+    private MessageTemplate(String message, String[] literals, String[] slots) {
+        this.message = message;
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * Compile a message into a template.
+     *
+     * @param message message to compile
+     * @return compiled template
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int literalStart = 0;
+        int index = message.indexOf('%');
+        while (index != -1) {
+            int end = placeholderEnd(message, index);
+            if (end == -1) {
+                index = message.indexOf('%', index + 1);
+                continue;
+            }
+            literals.add(message.substring(literalStart, index));
+            slots.add(message.substring(index, end + 1));
+            literalStart = end + 1;
+            index = message.indexOf('%', literalStart);
+        }
+        literals.add(message.substring(literalStart));
+        return new MessageTemplate(message, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * Find the closing {@code %} of a placeholder.
+     *
+     * @param message message
+     * @param start   index of the opening {@code %}
+     * @return index of the closing {@code %} or -1 if there is no placeholder at this position
+     */
+    private static int placeholderEnd(String message, int start) {
+        for (int i = start + 1; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '%') return i == start + 1 ? -1 : i;
+            if (!isNameChar(c)) return -1;
+        }
+        return -1;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '.' || c == '-';
+    }
+
+    /**
+     * Render the template.
+     *
+     * @param replacements replacements for the placeholders
+     * @return rendered message
+     */
+    public String render(Replacement... replacements) {
+        if (slots.length == 0) return message;
+        StringBuilder builder = new StringBuilder(message.length() + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            builder.append(valueOf(slots[i], replacements));
+        }
+        return builder.append(literals[slots.length]).toString();
+    }
+
+    private static String valueOf(String slot, Replacement[] replacements) {
+        for (Replacement replacement : replacements) {
+            if (replacement.matches(slot)) return replacement.getValue();
+        }
+        return slot;
+    }
+
+    /**
+     * Check if the template contains placeholders.
+     *
+     * @return true if the message contains at least one placeholder
+     */
+    public boolean hasPlaceholders() {
+        return slots.length != 0;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
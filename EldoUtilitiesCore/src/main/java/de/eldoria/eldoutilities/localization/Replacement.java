@@ -127,9 +127,45 @@ public final class Replacement {
      * @return string with key replaced by value.
      */
     public String invoke(String string) {
-        if (!caseSensitive) {
-            return string.replaceAll("(?i)" + key, value.replaceAll("[\\W]", "\\\\$0"));
+        int index = indexOf(string, 0);
+        if (index == -1) return string;
+        StringBuilder builder = new StringBuilder(string.length() + value.length());
+        int last = 0;
+        while (index != -1) {
+            builder.append(string, last, index).append(value);
+            last = index + key.length();
+            index = indexOf(string, last);
         }
-        return string.replace(key, value);
+        return builder.append(string, last, string.length()).toString();
+    }
+
+    private int indexOf(String string, int from) {
+        if (caseSensitive) return string.indexOf(key, from);
+        for (int i = from; i <= string.length() - key.length(); i++) {
+            if (string.regionMatches(true, i, key, 0, key.length())) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Check if this replacement replaces the placeholder.
+     *
+     * @param placeholder placeholder including the surrounding %
+     * @return true if the placeholder matches the key
+     */
+    boolean matches(String placeholder) {
+        return caseSensitive ? key.equals(placeholder) : key.equalsIgnoreCase(placeholder);
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    boolean isCaseSensitive() {
+        return caseSensitive;
     }
 }
@@ -357,9 +357,9 @@ public final class MessageSender {
      */
     public <T extends ChannelData> void sendLocalized(MessageChannel<T> channel, MessageType type, CommandSender sender, String message, @Nullable T data, Replacement... replacements) {
         if (data != null) {
-            data.localized(loc(), replacements);
+            data.localized(loc(), sender, replacements);
         }
-        send(channel, type, sender, loc().localize(message, replacements), data);
+        send(channel, type, sender, loc().localize(sender, message, replacements), data);
     }
 
     /**
@@ -4,11 +4,24 @@ import de.eldoria.eldoutilities.localization.ILocalizer;
 import de.eldoria.eldoutilities.localization.Replacement;
 import de.eldoria.eldoutilities.messages.MessageChannel;
 import de.eldoria.eldoutilities.messages.MessageType;
+import org.bukkit.command.CommandSender;
 
 public interface ChannelData {
     default void localized(ILocalizer localizer, Replacement... replacements) {
     }
 
+    /**
+     * Localize the data in the locale of the receiver.
+     *
+     * @param localizer    localizer to use
+     * @param sender       receiver of the message
+     * @param replacements replacements of the message
+     * @since 1.8.0
+     */
+    default void localized(ILocalizer localizer, CommandSender sender, Replacement... replacements) {
+        localized(localizer, replacements);
+    }
+
     default void formatText(MessageType type, MessageChannel<? extends ChannelData> channel, String prefix) {
     }
 }
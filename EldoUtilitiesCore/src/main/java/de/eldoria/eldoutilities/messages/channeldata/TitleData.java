@@ -4,6 +4,7 @@ import de.eldoria.eldoutilities.localization.ILocalizer;
 import de.eldoria.eldoutilities.localization.Replacement;
 import de.eldoria.eldoutilities.messages.MessageChannel;
 import de.eldoria.eldoutilities.messages.MessageType;
+import org.bukkit.command.CommandSender;
 
 public final class TitleData implements ChannelData {
     public static final TitleData DEFAULT = new TitleData(10, 50, 20, "");
@@ -36,6 +37,11 @@ public final class TitleData implements ChannelData {
         otherLine = localizer.localize(otherLine, replacements);
     }
 
+    @Override
+    public void localized(ILocalizer localizer, CommandSender sender, Replacement... replacements) {
+        otherLine = localizer.localize(sender, otherLine, replacements);
+    }
+
     @Override
     public void formatText(MessageType type, MessageChannel<? extends ChannelData> channel, String prefix) {
         type.forceColor(otherLine);
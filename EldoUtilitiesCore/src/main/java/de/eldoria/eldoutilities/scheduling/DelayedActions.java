@@ -3,16 +3,28 @@ package de.eldoria.eldoutilities.scheduling;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 /**
  * Scheduler service to schedule actions with only one scheduler and preserving the main thread from overloading.
+ * <p>
+ * Pending actions are stored in a {@link TimingWheel}. Scheduling an action and releasing the actions of a tick does
+ * not depend on the amount of pending actions.
+ * <p>
+ * Every scheduled action returns a {@link ScheduledAction}. Cancelled actions stay in the wheel and are dropped without
+ * execution once they are due.
  *
  * @since 1.2.3
  */
 public final class DelayedActions extends QueuingSelfSchedulingTask<DelayedActions.DelayedTask> {
-    private int currentTick = 0;
+    /**
+     * Amount of buckets of the timing wheel. Delays up to this amount of ticks are only visited once.
+     */
+    private static final int WHEEL_SIZE = 512;
+    // assigned by getQueueImplementation during the super constructor. Must not have an initializer.
+    private TickCounter ticks;
 
     private DelayedActions(Plugin plugin) {
         super(plugin);
@@ -39,12 +51,15 @@ public final class DelayedActions extends QueuingSelfSchedulingTask<DelayedActio
 
     @Override
     public void tick() {
-        currentTick++;
+        ticks.tick++;
     }
 
     @Override
     protected Queue<DelayedTask> getQueueImplementation() {
-        return new PriorityQueue<>();
+        // called by the super constructor. The counter does not reference this instance, so the queue and the pending
+        // tasks do not keep the scheduler alive.
+        ticks = new TickCounter();
+        return new TimingWheel<>(WHEEL_SIZE, ticks);
     }
 
     /**
@@ -52,36 +67,96 @@ public final class DelayedActions extends QueuingSelfSchedulingTask<DelayedActio
      *
      * @param runnable runnable to execute
      * @param delay    delay for execution.
+     * @return handle of the action. Can be used to cancel the action. The action is already cancelled if the scheduler
+     * was shut down.
      */
-    public void schedule(Runnable runnable, int delay) {
+    public ScheduledAction schedule(Runnable runnable, int delay) {
+        DelayedTask task = new DelayedTask(runnable, ticks.tick + delay, ticks);
         if (delay == 0) {
-            runnable.run();
-            return;
+            task.invoke();
+            return task;
         }
-        schedule(new DelayedTask(runnable, currentTick + delay));
+        if (!queue(task)) {
+            task.cancel();
+        }
+        return task;
     }
 
     @Override
     protected boolean proceed(DelayedTask object) {
-        return object.tick <= currentTick;
+        return object.getTick() <= ticks.tick;
     }
 
-    protected static class DelayedTask implements Comparable<DelayedTask> {
-        private final Runnable runnable;
-        private final int tick;
+    @Override
+    protected boolean isCancelled(DelayedTask object) {
+        return object.isCancelled();
+    }
+
+    protected static class DelayedTask extends TimingWheel.Entry implements Comparable<DelayedTask>, ScheduledAction {
+        private static final int PENDING = 0;
+        private static final int DONE = 1;
+        private static final int CANCELLED = 2;
+        // cleared on cancel. Cancelled tasks stay in the wheel until they are due and would retain the runnable.
+        private Runnable runnable;
+        private final TickCounter ticks;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
 
         public DelayedTask(Runnable runnable, int tick) {
+            this(runnable, tick, null);
+        }
+
+        private DelayedTask(Runnable runnable, int tick, TickCounter ticks) {
+            super(tick);
             this.runnable = runnable;
-            this.tick = tick;
+            this.ticks = ticks;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            // the state can not be changed anymore. invoke never reads the runnable of a cancelled task.
+            runnable = null;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public boolean isDone() {
+            return state.get() != PENDING;
+        }
+
+        @Override
+        public int getRemainingTicks() {
+            if (isDone() || ticks == null) return 0;
+            return Math.max(0, getTick() - ticks.tick);
         }
 
         @Override
         public int compareTo(@NotNull DelayedActions.DelayedTask o) {
-            return Integer.compare(tick, o.tick);
+            return Integer.compare(getTick(), o.getTick());
         }
 
         public void invoke() {
-            runnable.run();
+            // the action may be cancelled by another thread until now.
+            if (state.compareAndSet(PENDING, DONE)) {
+                runnable.run();
+            }
+        }
+    }
+
+    /**
+     * The current tick of a scheduler. Only written by the main thread.
+     */
+    private static final class TickCounter implements IntSupplier {
+        private int tick = 0;
+
+        @Override
+        public int getAsInt() {
+            return tick;
         }
     }
 }
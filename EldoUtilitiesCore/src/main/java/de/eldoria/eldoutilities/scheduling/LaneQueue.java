@@ -0,0 +1,203 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A queue which consists of multiple weighted lanes.
+ * <p>
+ * Every element is added to the lane returned by the lane selector. Elements are polled with smooth weighted round
+ * robin. While all lanes have a backlog, each lane receives a share of the polled elements which matches its weight.
+ * The polls of a lane are spread evenly instead of being polled in bursts. Empty lanes are skipped and do not hold
+ * back other lanes.
+ * <p>
+ * {@link #peek()} returns the element which would be returned by the next {@link #poll()}.
+ * <p>
+ * The lanes are created by the lane factory. The queue is as thread safe as its lanes. Polling and peeking have to be
+ * done by a single thread.
+ *
+ * @param <T> type of elements
+ * @since 1.8.0
+ */
+public final class LaneQueue<T> extends AbstractQueue<T> {
+    private final List<Queue<T>> lanes;
+    private final int[] weights;
+    private final int[] current;
+    private final LongAdder[] polled;
+    private final ToIntFunction<T> laneSelector;
+
+    /**
+     * Create a new lane queue.
+     *
+     * @param laneSelector function which returns the lane index of a element
+     * @param laneFactory  factory for the queue of a lane
+     * @param weights      weights of the lanes. The amount of weights defines the amount of lanes.
+     */
+    public LaneQueue(ToIntFunction<T> laneSelector, Supplier<Queue<T>> laneFactory, int... weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("At least one lane is required.");
+        }
+        lanes = new ArrayList<>(weights.length);
+        polled = new LongAdder[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 1) {
+                throw new IllegalArgumentException("Weights have to be at least 1.");
+            }
+            lanes.add(laneFactory.get());
+            polled[i] = new LongAdder();
+        }
+        this.laneSelector = laneSelector;
+        this.weights = weights.clone();
+        current = new int[weights.length];
+    }
+
+    /**
+     * Create a new lane queue with one lane per {@link TaskPriority}.
+     *
+     * @param prioritySelector function which returns the priority of a element
+     * @param laneFactory      factory for the queue of a lane
+     * @param <T>              type of elements
+     * @return new lane queue
+     */
+    public static <T> LaneQueue<T> ofPriorities(Function<T, TaskPriority> prioritySelector,
+                                                Supplier<Queue<T>> laneFactory) {
+        return new LaneQueue<>(e -> prioritySelector.apply(e).ordinal(), laneFactory, TaskPriority.weights());
+    }
+
+    @Override
+    public boolean offer(T element) {
+        return lanes.get(laneSelector.applyAsInt(element)).offer(element);
+    }
+
+    @Override
+    public T poll() {
+        int lane = selectLane();
+        if (lane == -1) return null;
+        // advance the round robin state. This has to match the selection.
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (lanes.get(i).isEmpty()) continue;
+            current[i] += weights[i];
+            total += weights[i];
+        }
+        current[lane] -= total;
+        polled[lane].increment();
+        return lanes.get(lane).poll();
+    }
+
+    @Override
+    public T peek() {
+        int lane = selectLane();
+        return lane == -1 ? null : lanes.get(lane).peek();
+    }
+
+    /**
+     * Select the lane of the next poll without changing the state.
+     *
+     * @return index of the lane or -1 if all lanes are empty
+     */
+    private int selectLane() {
+        int best = -1;
+        int bestValue = Integer.MIN_VALUE;
+        for (int i = 0; i < weights.length; i++) {
+            if (lanes.get(i).isEmpty()) continue;
+            int value = current[i] + weights[i];
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Queue<T> lane : lanes) {
+            if (!lane.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Queue<T> lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    /**
+     * Iterates over all lanes in the order of their index.
+     *
+     * @return iterator over all elements
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<Iterator<T>> iterators = new ArrayList<>(lanes.size());
+        for (Queue<T> lane : lanes) {
+            iterators.add(lane.iterator());
+        }
+        return new Iterator<T>() {
+            private int lane = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (lane < iterators.size()) {
+                    if (iterators.get(lane).hasNext()) return true;
+                    lane++;
+                }
+                return false;
+            }
+
+            @Override
+            public T next() {
+                hasNext();
+                if (lane >= iterators.size()) throw new NoSuchElementException();
+                return iterators.get(lane).next();
+            }
+
+            @Override
+            public void remove() {
+                iterators.get(lane).remove();
+            }
+        };
+    }
+
+    /**
+     * Get the amount of lanes.
+     *
+     * @return amount of lanes
+     */
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * Get the amount of elements waiting in a lane.
+     *
+     * @param lane index of lane
+     * @return amount of elements
+     */
+    public int laneSize(int lane) {
+        return lanes.get(lane).size();
+    }
+
+    /**
+     * Get the amount of elements which were polled from a lane.
+     *
+     * @param lane index of lane
+     * @return amount of polled elements
+     */
+    public long lanePolled(int lane) {
+        return polled[lane].sum();
+    }
+}
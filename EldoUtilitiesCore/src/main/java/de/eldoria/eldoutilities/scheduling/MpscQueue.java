@@ -0,0 +1,112 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A lock free unbounded queue for multiple producers and a single consumer.
+ * <p>
+ * Elements can be offered from any thread. Adding an element is a single atomic swap of the tail and never blocks.
+ * Reading methods like {@link #poll()}, {@link #peek()} and {@link #iterator()} may only be called by the consumer
+ * thread.
+ * <p>
+ * Elements which are offered while the consumer polls may become visible one poll later.
+ * <p>
+ * The iterator does not support removal.
+ *
+ * @param <T> type of elements
+ * @since 1.8.0
+ */
+public final class MpscQueue<T> extends AbstractQueue<T> {
+    private final AtomicReference<Node<T>> tail;
+    private final AtomicInteger size = new AtomicInteger();
+    // only accessed by the consumer
+    private Node<T> head;
+
+    public MpscQueue() {
+        Node<T> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    @Override
+    public boolean offer(T element) {
+        if (element == null) throw new NullPointerException();
+        Node<T> node = new Node<>(element);
+        Node<T> prev = tail.getAndSet(node);
+        // the consumer can not see the node until it is linked.
+        Node.NEXT.lazySet(prev, node);
+        size.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        Node<T> next = head.next;
+        if (next == null) return null;
+        T value = next.value;
+        next.value = null;
+        head = next;
+        size.decrementAndGet();
+        return value;
+    }
+
+    @Override
+    public T peek() {
+        Node<T> next = head.next;
+        return next == null ? null : next.value;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * Get the amount of elements in the queue.
+     * <p>
+     * This method can be called from every thread. The value is only a estimate while elements are added or removed.
+     *
+     * @return amount of elements
+     */
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Node<T> current = head.next;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public T next() {
+                if (current == null) throw new NoSuchElementException();
+                T value = current.value;
+                current = current.next;
+                return value;
+            }
+        };
+    }
+
+    private static final class Node<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+        private volatile Node<T> next;
+        private T value;
+
+        private Node(T value) {
+            this.value = value;
+        }
+    }
+}
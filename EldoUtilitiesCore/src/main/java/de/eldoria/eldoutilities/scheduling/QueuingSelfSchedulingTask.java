@@ -1,16 +1,33 @@
 package de.eldoria.eldoutilities.scheduling;
 
 import de.eldoria.eldoutilities.threading.ReschedulingTask;
+import de.eldoria.eldoutilities.threading.TickBudget;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * A task which handles queued objects on the main thread and pauses itself when the queue stays empty.
+ * <p>
+ * Objects can be queued from other threads if {@link #getQueueImplementation()} returns a thread safe queue like
+ * {@link MpscQueue}. The task is woken up atomically when a object is queued while it is paused. Every object which was
+ * queued before {@link #shutdown()} is handled. Objects can not be queued afterwards.
+ * <p>
+ * The default {@link #setBudget(TickBudget) budget} is {@link TickBudget#adaptive()}.
+ *
+ * @param <T> type of queued objects
+ */
 public abstract class QueuingSelfSchedulingTask<T> extends ReschedulingTask {
-    private static final int MAX_DURATION_TARGET = 50; // assuming 50ms = 1 tick
+    private static final int CLOSED = Integer.MIN_VALUE;
     private final Queue<T> tasks;
-    private int idleTicks = 0;
+    // threads which are currently queuing a object. CLOSED is added by the shutdown.
+    private final AtomicInteger producers = new AtomicInteger();
+    private final Consumer<T> handler = this::execute;
+    private volatile int idleTicks = 0;
     private int maxIdleTicks = 200;
 
     public QueuingSelfSchedulingTask(Plugin plugin, int maxIdleTicks) {
@@ -21,6 +38,8 @@ public abstract class QueuingSelfSchedulingTask<T> extends ReschedulingTask {
     public QueuingSelfSchedulingTask(Plugin plugin) {
         super(plugin);
         tasks = getQueueImplementation();
+        getMetrics().setQueueDepth(tasks::size);
+        setBudget(TickBudget.adaptive());
     }
 
     /**
@@ -39,18 +58,28 @@ public abstract class QueuingSelfSchedulingTask<T> extends ReschedulingTask {
     @Override
     public final void run() {
         tick();
-        long start = System.currentTimeMillis();
-        long duration = 0;
-
-        while (!tasks.isEmpty() && proceed(tasks.peek()) && duration < MAX_DURATION_TARGET) {
-            execute(tasks.poll());
-            duration = System.currentTimeMillis() - start;
+        if (!deferTick()) {
+            startWork();
+            // queues may hold back elements. peek returns null in this case.
+            T next;
+            while ((next = tasks.peek()) != null && proceed(next) && hasTime()) {
+                T object = tasks.poll();
+                if (!isCancelled(object)) {
+                    handleTimed(handler, object);
+                }
+            }
+            finishWork();
         }
 
         if (tasks.isEmpty()) {
             idleTicks++;
             if (idleTicks >= maxIdleTicks) {
+                getMetrics().recordIdleCancel();
                 cancel();
+                // a producer may have queued a object while we checked the queue.
+                if (!tasks.isEmpty()) {
+                    schedule();
+                }
             }
         }
     }
@@ -65,32 +94,112 @@ public abstract class QueuingSelfSchedulingTask<T> extends ReschedulingTask {
         return true;
     }
 
+    /**
+     * Check if a object was cancelled. Cancelled objects are removed from the queue without being handled.
+     *
+     * @param object object to check
+     * @return true if the object should be dropped
+     * @since 1.8.0
+     */
+    protected boolean isCancelled(T object) {
+        return false;
+    }
+
     protected final void schedule(T object) {
-        if (!isActive()) return;
-        tasks.add(object);
-        if (!isRunning()) {
-            schedule();
+        queue(object);
+    }
+
+    /**
+     * Queue a object.
+     * <p>
+     * The object is either handled by the task or by the shutdown of the task. It is not queued if the task was shut
+     * down.
+     *
+     * @param object object to queue
+     * @return true if the object was queued. False if the task was shut down.
+     * @since 1.8.0
+     */
+    protected final boolean queue(T object) {
+        if (producers.getAndIncrement() < 0) {
+            producers.decrementAndGet();
+            return false;
+        }
+        try {
+            tasks.add(object);
+            idleTicks = 0;
+            // the object has to be queued before the check. Otherwise the task could pause after the check.
+            if (!isRunning()) {
+                schedule();
+            }
+        } finally {
+            producers.decrementAndGet();
         }
-        idleTicks = 0;
+        return true;
     }
 
+    /**
+     * Create the queue of this task.
+     * <p>
+     * This method is called by the constructor. Fields of subclasses are not initialized yet.
+     *
+     * @return new queue
+     */
     protected Queue<T> getQueueImplementation() {
         return new ArrayDeque<>();
     }
 
     @Override
     public final void shutdown() {
+        int current;
+        do {
+            current = producers.get();
+            if (current < 0) return;
+        } while (!producers.compareAndSet(current, current + CLOSED));
+        // wait for threads which are still queuing. Their objects are handled below.
+        while (producers.get() != CLOSED) {
+            Thread.yield();
+        }
         super.shutdown();
-        for (T task : tasks) {
-            execute(task);
+
+        T task;
+        while ((task = tasks.poll()) != null) {
+            if (!isCancelled(task)) {
+                execute(task);
+            }
+        }
+        // queues may hold back elements which are not due yet.
+        for (T pending : tasks) {
+            if (!isCancelled(pending)) {
+                execute(pending);
+            }
         }
         tasks.clear();
     }
 
+    /**
+     * Remove a queued object.
+     * <p>
+     * The queue has to support removal. {@link MpscQueue} and a {@link LaneQueue} of them do not. Tasks which use such
+     * a queue, like {@link de.eldoria.eldoutilities.threading.AsyncSyncingCallbackExecutor}, should drop objects via
+     * {@link #isCancelled(Object)} instead.
+     *
+     * @param o object to remove
+     * @return true if the object was removed
+     * @throws UnsupportedOperationException if the queue does not support removal
+     */
     protected boolean remove(T o) {
         return tasks.remove(o);
     }
 
+    /**
+     * Remove all queued objects which match the filter.
+     * <p>
+     * The queue has to support removal. See {@link #remove(Object)}.
+     *
+     * @param filter filter of the objects to remove
+     * @return true if any object was removed
+     * @throws UnsupportedOperationException if the queue does not support removal
+     */
     protected boolean removeIf(Predicate<? super T> filter) {
         return tasks.removeIf(filter);
     }
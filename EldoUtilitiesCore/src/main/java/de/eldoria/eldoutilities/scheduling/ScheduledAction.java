@@ -0,0 +1,41 @@
+package de.eldoria.eldoutilities.scheduling;
+
+/**
+ * A handle of an action which was scheduled by {@link DelayedActions}.
+ *
+ * @since 1.8.0
+ */
+public interface ScheduledAction {
+    /**
+     * Cancel the action.
+     * <p>
+     * The action will not be executed afterwards. It is removed from the scheduler once it would be due.
+     *
+     * @return true if the action was cancelled. False if the action was already executed or cancelled.
+     */
+    boolean cancel();
+
+    /**
+     * Check if the action was cancelled.
+     *
+     * @return true if the action was cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Check if the action is done.
+     *
+     * @return true if the action was executed or cancelled
+     */
+    boolean isDone();
+
+    /**
+     * Get the amount of ticks until the action will be executed.
+     * <p>
+     * This method should only be called on the main thread. The ticks are counted there and other threads may read an
+     * outdated value.
+     *
+     * @return remaining ticks or 0 if the action is due or done
+     */
+    int getRemainingTicks();
+}
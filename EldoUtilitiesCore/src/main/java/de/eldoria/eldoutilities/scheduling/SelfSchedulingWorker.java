@@ -1,14 +1,26 @@
 package de.eldoria.eldoutilities.scheduling;
 
 import de.eldoria.eldoutilities.threading.ReschedulingTask;
+import de.eldoria.eldoutilities.threading.TickBudget;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Consumer;
 
 /**
  * A self scheduling worker which will schedule itself when getting tasks.
  * <p>
  * Will unschedule itself if no tasks are left for some time.
+ * <p>
+ * By default every registered object is handled in every tick. With a {@link #setPeriod(int) period} the registered
+ * objects are handled in a rotating slice and every object is handled once per period. A {@link #setBudget(TickBudget)
+ * budget} limits the time spent per tick. Objects which did not fit into the budget are handled in the next tick.
+ * <p>
+ * Registrations and unregistrations are buffered and applied at the start of the next tick. They can be done from any
+ * thread and while the worker handles its objects.
  *
  * @param <V> type of collection
  * @param <T> type of collection implementation
@@ -16,7 +28,13 @@ import java.util.Collection;
  */
 public abstract class SelfSchedulingWorker<V, T extends Collection<V>> extends ReschedulingTask {
     private final T tasks;
-    private int idleTicks = 0;
+    // registered objects in the order they are handled
+    private final List<V> rotation = new ArrayList<>();
+    private final Queue<Change<V>> changes = new MpscQueue<>();
+    private final Consumer<V> handler = this::execute;
+    private int period = 1;
+    private int cursor = 0;
+    private volatile int idleTicks = 0;
     private int maxIdleTicks = 200;
 
     public SelfSchedulingWorker(Plugin plugin, int maxIdleTicks) {
@@ -27,6 +45,7 @@ public abstract class SelfSchedulingWorker<V, T extends Collection<V>> extends R
     public SelfSchedulingWorker(Plugin plugin) {
         super(plugin);
         tasks = getQueueImplementation();
+        getMetrics().setQueueDepth(tasks::size);
     }
 
     /**
@@ -44,30 +63,91 @@ public abstract class SelfSchedulingWorker<V, T extends Collection<V>> extends R
 
     @Override
     public final void run() {
-        if (!tasks.isEmpty()) {
+        applyChanges();
+        if (!rotation.isEmpty()) {
             tick();
-            for (V task : tasks) {
-                execute(task);
+            if (deferTick()) return;
+            startWork();
+            int slice = (rotation.size() + period - 1) / period;
+            for (int processed = 0; processed < slice && hasTime(); processed++) {
+                if (cursor >= rotation.size()) cursor = 0;
+                handleTimed(handler, rotation.get(cursor++));
             }
+            finishWork();
         } else {
             idleTicks++;
             if (idleTicks >= maxIdleTicks) {
+                getMetrics().recordIdleCancel();
                 cancel();
+                // a object may have been registered while we checked the tasks.
+                if (!changes.isEmpty()) {
+                    schedule();
+                }
             }
         }
     }
 
+    private void applyChanges() {
+        if (changes.isEmpty()) return;
+        Change<V> change;
+        while ((change = changes.poll()) != null) {
+            if (change.add) {
+                tasks.add(change.object);
+            } else {
+                tasks.remove(change.object);
+            }
+        }
+
+        // rebuild the rotation once per batch. The collection decides which objects are equal.
+        V next = cursor < rotation.size() ? rotation.get(cursor) : null;
+        rotation.clear();
+        int nextIndex = -1;
+        for (V task : tasks) {
+            if (nextIndex == -1 && next != null && task == next) nextIndex = rotation.size();
+            rotation.add(task);
+        }
+        // continue with the object which would have been handled next
+        cursor = nextIndex != -1 ? nextIndex : Math.min(cursor, rotation.size());
+    }
+
     protected final void register(V object) {
         if (!isActive()) return;
-        tasks.add(object);
+        changes.add(new Change<>(object, true));
+        idleTicks = 0;
+        // queue the change before the check. run() looks at the changes after it paused, so one of both sees the change.
         if (!isRunning()) {
             schedule();
         }
-        idleTicks = 0;
     }
 
     public final void unregister(V object) {
-        tasks.remove(object);
+        changes.add(new Change<>(object, false));
+    }
+
+    /**
+     * Get the amount of ticks in which every registered object is handled once.
+     *
+     * @return period in ticks
+     * @since 1.8.0
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Set the amount of ticks in which every registered object is handled once.
+     * <p>
+     * Every tick a slice of {@code registered / period} objects is handled. The default is 1, which handles every
+     * object in every tick.
+     *
+     * @param period period in ticks
+     * @since 1.8.0
+     */
+    public void setPeriod(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Period has to be at least 1.");
+        }
+        this.period = period;
     }
 
     protected abstract T getQueueImplementation();
@@ -75,9 +155,21 @@ public abstract class SelfSchedulingWorker<V, T extends Collection<V>> extends R
     @Override
     public final void shutdown() {
         super.shutdown();
-        for (V task : tasks) {
+        applyChanges();
+        for (V task : rotation) {
             execute(task);
         }
         tasks.clear();
+        rotation.clear();
+    }
+
+    private static final class Change<V> {
+        private final V object;
+        private final boolean add;
+
+        private Change(V object, boolean add) {
+            this.object = object;
+            this.add = add;
+        }
     }
 }
@@ -0,0 +1,48 @@
+package de.eldoria.eldoutilities.scheduling;
+
+/**
+ * Priority of queued work.
+ * <p>
+ * Every priority has a own lane in a {@link LaneQueue}. The weight defines the share of the polled elements a lane
+ * receives while all lanes have a backlog.
+ *
+ * @since 1.8.0
+ */
+public enum TaskPriority {
+    /**
+     * Latency sensitive work like callbacks a player waits for.
+     */
+    HIGH(8),
+    /**
+     * Default priority.
+     */
+    NORMAL(4),
+    /**
+     * Bulk or cosmetic work which can wait.
+     */
+    LOW(1);
+
+    private final int weight;
+
+    TaskPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Get the weights of all priorities ordered by their ordinal.
+     *
+     * @return weights of the priorities
+     */
+    public static int[] weights() {
+        TaskPriority[] values = values();
+        int[] weights = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            weights[i] = values[i].weight;
+        }
+        return weights;
+    }
+}
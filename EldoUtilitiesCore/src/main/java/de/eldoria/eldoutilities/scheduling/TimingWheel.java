@@ -0,0 +1,263 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntSupplier;
+
+/**
+ * A hashed timing wheel which releases entries once their tick is reached.
+ * <p>
+ * Entries are stored in a bucket picked by their tick. Entries which are further away than one turn of the wheel share
+ * the bucket with earlier entries and are kept until their tick is reached. Every entry is linked into its bucket
+ * directly. Adding and removing an entry is O(1). Advancing the wheel by one tick only visits the bucket of this tick.
+ * <p>
+ * The queue only exposes entries which are due. {@link #peek()} and {@link #poll()} return null if entries are pending,
+ * but none of them is due yet. {@link #size()} returns the amount of all pending entries.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <E> type of entries
+ * @since 1.8.0
+ */
+final class TimingWheel<E extends TimingWheel.Entry> extends AbstractQueue<E> {
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Bucket due = new Bucket(this);
+    private final IntSupplier currentTick;
+    private int processedTick;
+    private int size = 0;
+
+    /**
+     * Create a new timing wheel.
+     *
+     * @param wheelSize   amount of buckets. Will be rounded up to the next power of two.
+     * @param currentTick supplier of the current tick. The tick may only increase.
+     */
+    TimingWheel(int wheelSize, IntSupplier currentTick) {
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("Wheel size has to be at least 1.");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) size <<= 1;
+        buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket(this);
+        }
+        mask = size - 1;
+        this.currentTick = currentTick;
+        processedTick = currentTick.getAsInt();
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Entry entry = element;
+        if (entry.bucket != null) {
+            throw new IllegalStateException("Entry is already scheduled.");
+        }
+        advance();
+        if (entry.tick - processedTick <= 0) {
+            due.append(entry);
+        } else {
+            buckets[entry.tick & mask].append(entry);
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        advance();
+        Entry head = due.head;
+        if (head == null) return null;
+        due.unlink(head);
+        size--;
+        return (E) head;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        advance();
+        return (E) due.head;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Entry)) return false;
+        Entry entry = (Entry) o;
+        Bucket bucket = entry.bucket;
+        if (bucket == null || bucket.owner != this) return false;
+        bucket.unlink(entry);
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Entry)) return false;
+        Bucket bucket = ((Entry) o).bucket;
+        return bucket != null && bucket.owner == this;
+    }
+
+    @Override
+    public void clear() {
+        due.clear();
+        for (Bucket bucket : buckets) {
+            bucket.clear();
+        }
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over all pending entries. Due entries are returned first. The remaining entries are not ordered.
+     *
+     * @return iterator over a snapshot of all entries
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> entries = new ArrayList<>(size);
+        collect(due, entries);
+        for (Bucket bucket : buckets) {
+            collect(bucket, entries);
+        }
+        Iterator<E> iterator = entries.iterator();
+        return new Iterator<E>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) throw new IllegalStateException();
+                TimingWheel.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(Bucket bucket, List<E> entries) {
+        for (Entry entry = bucket.head; entry != null; entry = entry.next) {
+            entries.add((E) entry);
+        }
+    }
+
+    /**
+     * Moves all entries which became due since the last call into the due list.
+     */
+    private void advance() {
+        int tick = currentTick.getAsInt();
+        int steps = tick - processedTick;
+        if (steps <= 0) return;
+        // after a full turn every bucket was visited once.
+        steps = Math.min(steps, buckets.length);
+        for (int i = 1; i <= steps; i++) {
+            Bucket bucket = buckets[(processedTick + i) & mask];
+            Entry entry = bucket.head;
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.tick - tick <= 0) {
+                    bucket.unlink(entry);
+                    due.append(entry);
+                }
+                entry = next;
+            }
+        }
+        processedTick = tick;
+    }
+
+    /**
+     * A entry of a timing wheel.
+     * <p>
+     * A entry can only be part of one wheel at a time.
+     */
+    abstract static class Entry {
+        private final int tick;
+        private Entry prev;
+        private Entry next;
+        private Bucket bucket;
+
+        /**
+         * Create a new entry.
+         *
+         * @param tick tick at which the entry is due
+         */
+        protected Entry(int tick) {
+            this.tick = tick;
+        }
+
+        public int getTick() {
+            return tick;
+        }
+    }
+
+    private static final class Bucket {
+        private final TimingWheel<?> owner;
+        private Entry head;
+        private Entry tail;
+
+        private Bucket(TimingWheel<?> owner) {
+            this.owner = owner;
+        }
+
+        private void append(Entry entry) {
+            entry.bucket = this;
+            entry.prev = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        private void unlink(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        private void clear() {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.bucket = null;
+                entry = next;
+            }
+            head = null;
+            tail = null;
+        }
+    }
+}
@@ -52,8 +52,8 @@ public abstract class EldoCommand implements TabExecutor {
      */
     protected static boolean argumentsInvalid(CommandSender sender, MessageSender messageSender, ILocalizer localizer, String[] args, int length, String syntax) {
         if (args.length < length) {
-            messageSender.sendError(sender, localizer.getMessage("error.invalidArguments",
-                    Replacement.create("SYNTAX", localizer.localize(syntax)).addFormatting('6')));
+            messageSender.sendError(sender, localizer.getMessage(sender, "error.invalidArguments",
+                    Replacement.create("SYNTAX", localizer.localize(sender, syntax)).addFormatting('6')));
             return true;
         }
         return false;
@@ -83,7 +83,7 @@ public abstract class EldoCommand implements TabExecutor {
         if (args.length == 0) return Collections.emptyList();
 
         return getCommand(args[0]).map(c -> c.onTabComplete(sender, command, alias, newArgs))
-                .orElse(Collections.singletonList(localizer().getMessage("error.invalidCommand")));
+                .orElse(Collections.singletonList(localizer().getMessage(sender, "error.invalidCommand")));
     }
 
     private Optional<TabExecutor> getCommand(String command) {
@@ -229,7 +229,7 @@ public abstract class EldoCommand implements TabExecutor {
         }
         if (!silent) {
             messageSender().sendMessage(player,
-                    localizer().getMessage("error.permission",
+                    localizer().getMessage(player, "error.permission",
                             Replacement.create("PERMISSION", String.join(", ", permissions)).addFormatting('6')));
         }
         return true;
@@ -278,7 +278,7 @@ public abstract class EldoCommand implements TabExecutor {
      */
     protected boolean invalidRange(CommandSender sender, double value, double min, double max) {
         if (value > max || value < min) {
-            messageSender().sendError(sender, localizer().getMessage("error.invalidRange",
+            messageSender().sendError(sender, localizer().getMessage(sender, "error.invalidRange",
                     Replacement.create("MIN", min).addFormatting('6'),
                     Replacement.create("MAX", max).addFormatting('6')));
             return true;
@@ -298,7 +298,7 @@ public abstract class EldoCommand implements TabExecutor {
      */
     protected <T extends Enum<T>> boolean invalidEnumValue(CommandSender sender, T value, Class<T> clazz) {
         if (value == null) {
-            messageSender().sendError(sender, localizer().getMessage("error.invalidEnumValue",
+            messageSender().sendError(sender, localizer().getMessage(sender, "error.invalidEnumValue",
                     Replacement.create("VALUES",
                             Arrays.stream(clazz.getEnumConstants())
                                     .map(e -> e.name().toLowerCase())
@@ -6,6 +6,7 @@ import de.eldoria.eldoutilities.localization.Replacement;
 import de.eldoria.eldoutilities.utils.ArrayUtil;
 import de.eldoria.eldoutilities.utils.Parser;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -181,17 +182,34 @@ public final class TabCompleteUtil {
      * @return list with range advise or error
      */
     public static List<String> completeDouble(String value, double min, double max, ILocalizer loc) {
+        return completeDouble(value, min, max, loc, null);
+    }
+
+    /**
+     * Checks if the input is a number and inside the range. Requires {@code error.invalidRange (%MAX%, %MIN%)} and
+     * {@code error.invalidNumber} key in locale file
+     *
+     * @param value  current value
+     * @param min    min value
+     * @param max    max value
+     * @param loc    localizer instance
+     * @param sender sender which requested the completion. The error is localized in the locale of the sender.
+     * @return list with range advise or error
+     * @since 1.8.0
+     */
+    public static List<String> completeDouble(String value, double min, double max, ILocalizer loc,
+                                              @Nullable CommandSender sender) {
         OptionalDouble d = Parser.parseDouble(value);
         if (d.isPresent()) {
             if (d.getAsDouble() > max || d.getAsDouble() < min) {
-                return Collections.singletonList(loc.getMessage("error.invalidRange",
+                return Collections.singletonList(loc.getMessage(sender, "error.invalidRange",
                         Replacement.create("MIN", min).addFormatting('6'),
                         Replacement.create("MAX", max).addFormatting('6')));
 
             }
             return Collections.singletonList(min + "-" + max);
         }
-        return Collections.singletonList(loc.getMessage("error.invalidNumber"));
+        return Collections.singletonList(loc.getMessage(sender, "error.invalidNumber"));
     }
 
     /**
@@ -205,17 +223,34 @@ public final class TabCompleteUtil {
      * @return list with range advise or error
      */
     public static List<String> completeInt(String value, int min, int max, ILocalizer loc) {
+        return completeInt(value, min, max, loc, null);
+    }
+
+    /**
+     * Checks if the input is a number and inside the range. Requires {@code error.invalidRange (%MAX%, %MIN%)} and
+     * {@code error.invalidNumber} key in locale file
+     *
+     * @param value  current value
+     * @param min    min value
+     * @param max    max value
+     * @param loc    localizer instance
+     * @param sender sender which requested the completion. The error is localized in the locale of the sender.
+     * @return list with range advise or error
+     * @since 1.8.0
+     */
+    public static List<String> completeInt(String value, int min, int max, ILocalizer loc,
+                                           @Nullable CommandSender sender) {
         OptionalInt d = Parser.parseInt(value);
         if (d.isPresent()) {
             if (d.getAsInt() > max || d.getAsInt() < min) {
-                return Collections.singletonList(loc.getMessage("error.invalidRange",
+                return Collections.singletonList(loc.getMessage(sender, "error.invalidRange",
                         Replacement.create("MIN", min).addFormatting('6'),
                         Replacement.create("MAX", max).addFormatting('6')));
 
             }
             return Collections.singletonList(min + "-" + max);
         }
-        return Collections.singletonList(loc.getMessage("error.invalidNumber"));
+        return Collections.singletonList(loc.getMessage(sender, "error.invalidNumber"));
     }
 
     /**
@@ -229,8 +264,26 @@ public final class TabCompleteUtil {
      * @return list of string with length 1
      */
     public static List<String> completeFreeInput(String value, int maxLength, String defaultComplete, ILocalizer loc) {
+        return completeFreeInput(value, maxLength, defaultComplete, loc, null);
+    }
+
+    /**
+     * Checks if a string is smaller then the current input. Requires {@code error.invalidLength, %MAX%} key in locale
+     * file
+     *
+     * @param value           value to check
+     * @param maxLength       max length of string
+     * @param defaultComplete default completion output
+     * @param loc             localizer instance
+     * @param sender          sender which requested the completion. The error is localized in the locale of the
+     *                        sender.
+     * @return list of string with length 1
+     * @since 1.8.0
+     */
+    public static List<String> completeFreeInput(String value, int maxLength, String defaultComplete, ILocalizer loc,
+                                                 @Nullable CommandSender sender) {
         if (value.length() > maxLength) {
-            return Collections.singletonList(loc.getMessage("error.invalidLength",
+            return Collections.singletonList(loc.getMessage(sender, "error.invalidLength",
                     Replacement.create("MAX", maxLength).addFormatting('6')));
         }
         return Collections.singletonList(defaultComplete);
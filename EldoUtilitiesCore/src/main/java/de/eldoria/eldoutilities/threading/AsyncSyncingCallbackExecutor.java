@@ -1,24 +1,30 @@
 package de.eldoria.eldoutilities.threading;
 
+import de.eldoria.eldoutilities.scheduling.LaneQueue;
+import de.eldoria.eldoutilities.scheduling.MpscQueue;
 import de.eldoria.eldoutilities.scheduling.QueuingSelfSchedulingTask;
-import org.bukkit.Bukkit;
+import de.eldoria.eldoutilities.scheduling.TaskPriority;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitScheduler;
 
+import java.util.Locale;
+import java.util.Queue;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * Scheduler Service which allows to execute a async call and handle the retrieved data in the main thread.
  * Preserves the main thread from overloading
+ * <p>
+ * Every {@link TaskPriority} has a own lane. Callbacks are handled in weighted round robin order, which keeps the
+ * latency of high priority callbacks low while low priority callbacks have a large backlog.
  */
 public final class AsyncSyncingCallbackExecutor extends QueuingSelfSchedulingTask<AsyncSyncingCallbackExecutor.Callback<?>> {
 
-    private final BukkitScheduler scheduler;
+    private final ExecutionBackend backend;
 
-    private AsyncSyncingCallbackExecutor(Plugin plugin) {
+    private AsyncSyncingCallbackExecutor(Plugin plugin, ExecutionBackend backend) {
         super(plugin);
-        scheduler = Bukkit.getScheduler();
+        this.backend = backend;
     }
 
     /**
@@ -28,7 +34,33 @@ public final class AsyncSyncingCallbackExecutor extends QueuingSelfSchedulingTas
      * @return running executor instance
      */
     public static AsyncSyncingCallbackExecutor create(Plugin plugin) {
-        return new AsyncSyncingCallbackExecutor(plugin);
+        return new AsyncSyncingCallbackExecutor(plugin, ExecutionBackend.bukkit(plugin));
+    }
+
+    /**
+     * Returns a new running executor instance which executes the async calls on a backend.
+     * <p>
+     * The results are still handled by the queue of this executor.
+     *
+     * @param plugin  plugin of executor
+     * @param backend backend for async calls
+     * @return running executor instance
+     * @since 1.8.0
+     */
+    public static AsyncSyncingCallbackExecutor create(Plugin plugin, ExecutionBackend backend) {
+        return new AsyncSyncingCallbackExecutor(plugin, backend);
+    }
+
+    @Override
+    protected Queue<Callback<?>> getQueueImplementation() {
+        // callbacks are queued by async threads
+        LaneQueue<Callback<?>> queue = LaneQueue.ofPriorities(callback -> callback.priority, MpscQueue::new);
+        for (TaskPriority priority : TaskPriority.values()) {
+            String name = priority.name().toLowerCase(Locale.ROOT);
+            getMetrics().addGauge(name + " backlog", () -> queue.laneSize(priority.ordinal()));
+            getMetrics().addGauge(name + " handled", () -> queue.lanePolled(priority.ordinal()));
+        }
+        return queue;
     }
 
     @Override
@@ -44,17 +76,36 @@ public final class AsyncSyncingCallbackExecutor extends QueuingSelfSchedulingTas
      * @param <T>           type of data
      */
     public <T> void schedule(Supplier<T> asyncProvider, Consumer<T> syncAction) {
+        schedule(asyncProvider, syncAction, TaskPriority.NORMAL);
+    }
+
+    /**
+     * Schedules a new task for execution.
+     *
+     * @param asyncProvider Supplier which is executed async and provides data for the consumer
+     * @param syncAction    Consumer which consumes the data in main thread provided by the supplier
+     * @param priority      priority of the sync action
+     * @param <T>           type of data
+     * @since 1.8.0
+     */
+    public <T> void schedule(Supplier<T> asyncProvider, Consumer<T> syncAction, TaskPriority priority) {
         if (!isActive()) return;
-        scheduler.runTaskAsynchronously(getPlugin(), () -> schedule(new Callback<>(asyncProvider.get(), syncAction)));
+        backend.runAsync(() -> schedule(new Callback<>(asyncProvider.get(), syncAction, priority)));
     }
 
     protected static class Callback<T> {
         private final T data;
         private final Consumer<T> consumer;
+        private final TaskPriority priority;
 
         public Callback(T data, Consumer<T> consumer) {
+            this(data, consumer, TaskPriority.NORMAL);
+        }
+
+        public Callback(T data, Consumer<T> consumer, TaskPriority priority) {
             this.data = data;
             this.consumer = consumer;
+            this.priority = priority;
         }
 
         private void invoke() {
@@ -1,9 +1,13 @@
 package de.eldoria.eldoutilities.threading;
 
-import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitScheduler;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -14,7 +18,7 @@ public final class BukkitAsyncAction<T> {
     private Consumer<T> consumer;
     private Consumer<Throwable> consumerError;
     private final Consumer<Throwable> supplierError;
-    private final BukkitScheduler scheduler = Bukkit.getScheduler();
+    private ExecutionBackend backend;
 
     private BukkitAsyncAction(Plugin plugin, Supplier<T> supplier, Consumer<Throwable> supplierError) {
         this.supplier = supplier;
@@ -23,6 +27,7 @@ public final class BukkitAsyncAction<T> {
         this.consumer = e -> {
         };
         this.consumerError = getDefaultLogger(plugin);
+        this.backend = ExecutionBackend.bukkit(plugin);
     }
 
     protected static Consumer<Throwable> getDefaultLogger(Plugin plugin) {
@@ -78,6 +83,98 @@ public final class BukkitAsyncAction<T> {
         return this;
     }
 
+    /**
+     * Set the backend which executes the action.
+     * <p>
+     * The bukkit scheduler is used by default.
+     *
+     * @param backend backend to use
+     * @return current instance with changed backend
+     * @since 1.8.0
+     */
+    public BukkitAsyncAction<T> using(ExecutionBackend backend) {
+        this.backend = backend;
+        return this;
+    }
+
+    /**
+     * Executes the supplier async and returns a future of the result.
+     * <p>
+     * The future is completed on the thread which executed the supplier. Use {@link #mainThread()} to continue on
+     * the main thread and {@link #async()} to continue async.
+     * <pre>{@code
+     * BukkitAsyncAction<Profile> action = BukkitAsyncAction.call(plugin, () -> loadProfile(id));
+     * action.toFuture()
+     *         .thenApplyAsync(profile -> loadStats(profile), action.async())
+     *         .thenAcceptAsync(stats -> show(player, stats), action.mainThread());
+     * }</pre>
+     * The consumers and error handlers of this action are not used. Errors of the supplier complete the future
+     * exceptionally.
+     *
+     * @return future of the supplier result
+     * @since 1.8.0
+     */
+    public CompletableFuture<T> toFuture() {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            backend.runAsync(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Get a executor which continues a stage on the main thread.
+     *
+     * @return main thread executor of the backend of this action
+     * @since 1.8.0
+     */
+    public Executor mainThread() {
+        return backend.syncExecutor();
+    }
+
+    /**
+     * Get a executor which continues a stage async.
+     *
+     * @return async executor of the backend of this action
+     * @since 1.8.0
+     */
+    public Executor async() {
+        return backend.asyncExecutor();
+    }
+
+    /**
+     * Executes all actions async and combines their results.
+     * <p>
+     * The future fails if one of the actions fails.
+     *
+     * @param actions actions to execute
+     * @param <T>     type of results
+     * @return future of the results in the order of the actions
+     * @since 1.8.0
+     */
+    public static <T> CompletableFuture<List<T>> allOf(Collection<BukkitAsyncAction<T>> actions) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(actions.size());
+        for (BukkitAsyncAction<T> action : actions) {
+            futures.add(action.toFuture());
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+    }
+
     /**
      * Queue the action for async execution
      */
@@ -126,21 +223,31 @@ public final class BukkitAsyncAction<T> {
 
     private void executeAsync(Supplier<T> supplier, Consumer<T> consumer,
                               Consumer<Throwable> supplierError, Consumer<Throwable> consumerError) {
-        scheduler.runTaskAsynchronously(plugin, () -> {
-            T result;
-            try {
-                result = supplier.get();
-            } catch (Throwable e) {
-                supplierError.accept(e);
-                return;
-            }
-            scheduler.runTask(plugin, () -> {
+        try {
+            backend.runAsync(() -> {
+                T result;
                 try {
-                    consumer.accept(result);
+                    result = supplier.get();
                 } catch (Throwable e) {
-                    consumerError.accept(e);
+                    supplierError.accept(e);
+                    return;
+                }
+                try {
+                    backend.runSync(() -> {
+                        try {
+                            consumer.accept(result);
+                        } catch (Throwable e) {
+                            consumerError.accept(e);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // the consumer may not run on this thread.
+                    plugin.getLogger().warning("The result of an async action was dropped. "
+                            + "The execution backend was shut down.");
                 }
             });
-        });
+        } catch (RejectedExecutionException e) {
+            supplierError.accept(e);
+        }
     }
 }
@@ -0,0 +1,29 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+/**
+ * A {@link ExecutionBackend} which schedules every task on the bukkit scheduler.
+ *
+ * @since 1.8.0
+ */
+public final class BukkitExecutionBackend implements ExecutionBackend {
+    private final Plugin plugin;
+    private final BukkitScheduler scheduler = Bukkit.getScheduler();
+
+    BukkitExecutionBackend(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        scheduler.runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        scheduler.runTask(plugin, task);
+    }
+}
@@ -0,0 +1,95 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A backend which executes work asynchronously and hands results back to the main thread.
+ * <p>
+ * Use {@link #bukkit(Plugin)} for the bukkit scheduler or {@link PooledExecutionBackend#builder(Plugin)} for a bounded
+ * thread pool.
+ *
+ * @since 1.8.0
+ */
+public interface ExecutionBackend {
+    /**
+     * Get a backend which uses the bukkit scheduler.
+     * <p>
+     * Every async task is a own bukkit task and every sync task is scheduled for the next tick.
+     *
+     * @param plugin plugin which owns the tasks
+     * @return new backend
+     */
+    static ExecutionBackend bukkit(Plugin plugin) {
+        return new BukkitExecutionBackend(plugin);
+    }
+
+    /**
+     * Create a backend which executes every async task on a own virtual thread.
+     * <p>
+     * Every call creates a new backend with its own sync task drain. Create one backend per plugin, keep it and call
+     * {@link #shutdown()} when the plugin is disabled.
+     * <p>
+     * Falls back to {@link #bukkit(Plugin)} if the JVM does not support virtual threads or if they can not be created,
+     * e.g. on Java 19 and 20 without preview features.
+     *
+     * @param plugin plugin which owns the tasks
+     * @return new backend
+     * @see VirtualThreadExecutionBackend
+     */
+    static ExecutionBackend createVirtualThreads(Plugin plugin) {
+        if (VirtualThreadExecutionBackend.isSupported()) {
+            try {
+                return VirtualThreadExecutionBackend.create(plugin);
+            } catch (UnsupportedOperationException e) {
+                plugin.getLogger().fine("Virtual threads could not be created. Falling back to bukkit scheduler.");
+            }
+        }
+        return bukkit(plugin);
+    }
+
+    /**
+     * Execute a task asynchronously.
+     *
+     * @param task task to execute
+     * @throws java.util.concurrent.RejectedExecutionException if the backend can not accept the task
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Execute a task on the main thread.
+     *
+     * @param task task to execute
+     * @throws java.util.concurrent.RejectedExecutionException if the backend was shut down
+     */
+    void runSync(Runnable task);
+
+    /**
+     * Get a executor which executes tasks asynchronously via {@link #runAsync(Runnable)}.
+     * <p>
+     * Can be passed to the async methods of {@link java.util.concurrent.CompletionStage}.
+     *
+     * @return async executor
+     */
+    default Executor asyncExecutor() {
+        return this::runAsync;
+    }
+
+    /**
+     * Get a executor which executes tasks on the main thread via {@link #runSync(Runnable)}.
+     * <p>
+     * Can be passed to the async methods of {@link java.util.concurrent.CompletionStage}.
+     *
+     * @return main thread executor
+     */
+    default Executor syncExecutor() {
+        return this::runSync;
+    }
+
+    /**
+     * Shut down the backend. Tasks which were already submitted will be executed.
+     */
+    default void shutdown() {
+    }
+}
@@ -30,12 +30,11 @@ import java.util.function.Predicate;
  * @since 1.0.0
  */
 public class IteratingTask<T> extends BukkitRunnable {
-    private static final int MAX_DURATION_TARGET = 50; // assuming 50ms = 1 tick
-
     private final Iterator<T> iterator;
     private final Predicate<T> processor;
     private final Consumer<TaskStatistics> statisticsConsumer;
     private final TaskStatistics statistics;
+    private TickBudget budget = TickBudget.adaptive();
 
     /**
      * Creates a new iterating task.
@@ -52,14 +51,35 @@ public class IteratingTask<T> extends BukkitRunnable {
         this.statistics = new TaskStatistics();
     }
 
+    /**
+     * Get the time budget of this task per tick.
+     *
+     * @return budget
+     * @since 1.8.0
+     */
+    public TickBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Set the time budget of this task per tick.
+     * <p>
+     * The default is {@link TickBudget#adaptive()}.
+     *
+     * @param budget budget
+     * @since 1.8.0
+     */
+    public void setBudget(TickBudget budget) {
+        this.budget = budget;
+    }
+
     @Override
     public final void run() {
-        long start = System.currentTimeMillis();
-        long duration;
+        budget.startTick();
         do {
             T next;
             if (!iterator.hasNext()) {
-                this.statistics.addTime(System.currentTimeMillis() - start);
+                this.statistics.addTimeNanos(budget.elapsedNanos());
                 cancel();
                 this.statisticsConsumer.accept(this.statistics);
                 return;
@@ -68,7 +88,7 @@ public class IteratingTask<T> extends BukkitRunnable {
             if (this.processor.test(next)) {
                 this.statistics.processElement();
             }
-        } while ((duration = System.currentTimeMillis() - start) < MAX_DURATION_TARGET);
-        this.statistics.addTime(duration);
+        } while (budget.hasTime());
+        this.statistics.addTimeNanos(budget.elapsedNanos());
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package de.eldoria.eldoutilities.threading;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with buckets of powers of two.
+ * <p>
+ * Recording a value is a single {@link LongAdder} increment. Percentiles are reported as the upper bound of the bucket
+ * which contains the percentile. They are therefore at most twice as high as the real value.
+ *
+ * @since 1.8.0
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets[bucket(nanos)].increment();
+    }
+
+    /**
+     * Get the amount of recorded durations.
+     *
+     * @return amount of durations
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Get a percentile of the recorded durations.
+     *
+     * @param percentile percentile between 0 and 1
+     * @return upper bound of the percentile in nanoseconds or 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos <= 0) return 0;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
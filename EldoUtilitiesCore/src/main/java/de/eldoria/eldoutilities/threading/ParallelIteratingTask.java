@@ -0,0 +1,295 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.stream.StreamSupport;
+
+/**
+ * A task which computes results for the elements of a collection in parallel and applies them on the main thread.
+ * <p>
+ * The computation is started with the first run of the task and is executed on a {@link ForkJoinPool}. The computation
+ * has to be thread safe and should not access the bukkit api. Every result which is not null is queued and applied on
+ * the main thread within the {@link TickBudget} of the task. The task cancels itself when all results were applied.
+ * <p>
+ * At most {@link #setMaxPendingResults(int) max pending results} are queued. The computation waits while the queue is
+ * full. Waiting workers of a {@link ForkJoinPool} are compensated by the pool, so other users of the pool are not
+ * stalled. If the computation or the processor fails, the task cancels itself, discards the remaining results and
+ * passes the failure to the error consumer on the main thread. The statistics consumer is not called in this case.
+ * <pre>{@code
+ *         ParallelIteratingTask<Block, Material> task = new ParallelIteratingTask<>(blocks,
+ *                 block -> computeMaterial(block),
+ *                 material -> {
+ *                     apply(material);
+ *                     return true;
+ *                 }, stats -> {
+ *                     Bukkit.logger().info(
+ *                             String.format("Processed %d elements in %dms",
+ *                                     stats.getProcessedElements(),
+ *                                     stats.getTime()));
+ *                 });
+ *
+ *         task.runTaskTimer(plugin, 5, 1);
+ * }</pre>
+ * The statistics contain the elements which were applied and the time of the parallel computation plus the time spent
+ * on the main thread.
+ *
+ * @param <T> type of elements
+ * @param <R> type of results
+ * @since 1.8.0
+ */
+public class ParallelIteratingTask<T, R> extends BukkitRunnable {
+    /**
+     * Default amount of results which can be queued before the computation waits.
+     */
+    public static final int DEFAULT_MAX_PENDING_RESULTS = 4096;
+    // time a waiting computation checks if the task was cancelled
+    private static final long HANDOFF_WAIT_MILLIS = 10;
+    private final Spliterator<T> spliterator;
+    private final Function<T, R> computation;
+    private final Predicate<R> processor;
+    private final Consumer<TaskStatistics> statisticsConsumer;
+    private final Consumer<Throwable> errorConsumer;
+    private final TaskStatistics statistics = new TaskStatistics();
+    private final Executor executor;
+    private TickBudget budget = TickBudget.adaptive();
+    private int maxPendingResults = DEFAULT_MAX_PENDING_RESULTS;
+    private BlockingQueue<R> results;
+    private volatile boolean stopped = false;
+    private volatile boolean computed = false;
+    private volatile Throwable failure;
+    private volatile long computationNanos;
+
+    /**
+     * Creates a new parallel iterating task which computes on the common pool.
+     * <p>
+     * Failures are logged.
+     *
+     * @param collection         collection of elements of type {@link T}
+     * @param computation        computation which is executed in parallel for each element. Returns null if the
+     *                           element should be skipped.
+     * @param processor          processor to apply each result on the main thread. Returns {@code true} if the result
+     *                           was processed or {@code false} if it was skipped.
+     * @param statisticsConsumer consumer which will be executed after all results were applied
+     */
+    public ParallelIteratingTask(Collection<T> collection, Function<T, R> computation, Predicate<R> processor,
+                                 Consumer<TaskStatistics> statisticsConsumer) {
+        this(collection, computation, processor, statisticsConsumer,
+                e -> Bukkit.getLogger().log(Level.SEVERE, "A parallel iterating task failed.", e));
+    }
+
+    /**
+     * Creates a new parallel iterating task which computes on the common pool.
+     *
+     * @param collection         collection of elements of type {@link T}
+     * @param computation        computation which is executed in parallel for each element. Returns null if the
+     *                           element should be skipped.
+     * @param processor          processor to apply each result on the main thread. Returns {@code true} if the result
+     *                           was processed or {@code false} if it was skipped.
+     * @param statisticsConsumer consumer which will be executed after all results were applied
+     * @param errorConsumer      consumer which will be executed on the main thread if the task failed
+     */
+    public ParallelIteratingTask(Collection<T> collection, Function<T, R> computation, Predicate<R> processor,
+                                 Consumer<TaskStatistics> statisticsConsumer, Consumer<Throwable> errorConsumer) {
+        this(collection.spliterator(), computation, processor, statisticsConsumer, errorConsumer,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new parallel iterating task.
+     * <p>
+     * The elements are split on the {@link ForkJoinPool} the computation runs in. If the executor is not a fork join
+     * pool the common pool helps with the computation.
+     *
+     * @param spliterator        spliterator of elements of type {@link T}
+     * @param computation        computation which is executed in parallel for each element. Returns null if the
+     *                           element should be skipped.
+     * @param processor          processor to apply each result on the main thread. Returns {@code true} if the result
+     *                           was processed or {@code false} if it was skipped.
+     * @param statisticsConsumer consumer which will be executed after all results were applied
+     * @param errorConsumer      consumer which will be executed on the main thread if the task failed
+     * @param executor           executor to start the computation on
+     */
+    public ParallelIteratingTask(Spliterator<T> spliterator, Function<T, R> computation, Predicate<R> processor,
+                                 Consumer<TaskStatistics> statisticsConsumer, Consumer<Throwable> errorConsumer,
+                                 Executor executor) {
+        this.spliterator = spliterator;
+        this.computation = computation;
+        this.processor = processor;
+        this.statisticsConsumer = statisticsConsumer;
+        this.errorConsumer = errorConsumer;
+        this.executor = executor;
+    }
+
+    /**
+     * Get the time budget of this task per tick.
+     *
+     * @return budget
+     */
+    public TickBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Set the time budget of this task per tick.
+     * <p>
+     * The default is {@link TickBudget#adaptive()}.
+     *
+     * @param budget budget
+     */
+    public void setBudget(TickBudget budget) {
+        this.budget = budget;
+    }
+
+    public int getMaxPendingResults() {
+        return maxPendingResults;
+    }
+
+    /**
+     * Set the amount of results which can be queued before the computation waits for the main thread.
+     * <p>
+     * The default is {@value #DEFAULT_MAX_PENDING_RESULTS}. Changes after the first run have no effect.
+     *
+     * @param maxPendingResults amount of results
+     */
+    public void setMaxPendingResults(int maxPendingResults) {
+        if (maxPendingResults < 1) {
+            throw new IllegalArgumentException("At least one result has to be pending.");
+        }
+        this.maxPendingResults = maxPendingResults;
+    }
+
+    @Override
+    public final void run() {
+        if (!tick()) {
+            cancel();
+        }
+    }
+
+    /**
+     * Handle one tick of this task.
+     * <p>
+     * Starts the computation in the first tick and applies the results within the budget.
+     *
+     * @return false if the task is done and should be cancelled
+     */
+    boolean tick() {
+        if (stopped) return false;
+        if (results == null) {
+            results = new ArrayBlockingQueue<>(maxPendingResults);
+            try {
+                executor.execute(this::compute);
+            } catch (Throwable e) {
+                fail(e);
+                return false;
+            }
+        }
+
+        budget.startTick();
+        // read the state before draining. Results which arrive afterwards are applied in the next tick.
+        boolean done = computed;
+        R next;
+        try {
+            while (budget.hasTime() && (next = results.poll()) != null) {
+                if (processor.test(next)) {
+                    statistics.processElement();
+                }
+            }
+        } catch (Throwable e) {
+            fail(e);
+            return false;
+        }
+        statistics.addTimeNanos(budget.elapsedNanos());
+
+        if (!done) return true;
+        if (failure != null) {
+            fail(failure);
+            return false;
+        }
+        if (!results.isEmpty()) return true;
+        stopped = true;
+        statistics.addTimeNanos(computationNanos);
+        statisticsConsumer.accept(statistics);
+        return false;
+    }
+
+    @Override
+    public synchronized void cancel() {
+        // a waiting computation would never be able to hand off its results.
+        stopped = true;
+        super.cancel();
+    }
+
+    private void fail(Throwable e) {
+        stopped = true;
+        if (results != null) results.clear();
+        errorConsumer.accept(e);
+    }
+
+    private void compute() {
+        long start = System.nanoTime();
+        try {
+            StreamSupport.stream(spliterator, true).forEach(element -> {
+                if (stopped) throw new CancellationException();
+                R result = computation.apply(element);
+                if (result != null) {
+                    handOff(result);
+                }
+            });
+            computationNanos = System.nanoTime() - start;
+        } catch (Throwable e) {
+            failure = e;
+        }
+        computed = true;
+    }
+
+    private void handOff(R result) {
+        if (results.offer(result)) return;
+        try {
+            // lets the pool start a compensating thread while this one waits. Waiting workers would stall every other
+            // user of the pool otherwise.
+            ForkJoinPool.managedBlock(new HandOff(result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Waits until a result fits into the full queue.
+     */
+    private final class HandOff implements ForkJoinPool.ManagedBlocker {
+        private final R result;
+        private boolean queued = false;
+
+        private HandOff(R result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!queued) {
+                if (stopped) throw new CancellationException();
+                queued = results.offer(result, HANDOFF_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return queued || (queued = results.offer(result));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ExecutionBackend} which executes async tasks on a bounded pool of named threads.
+ * <p>
+ * Sync tasks are collected in a queue and executed by a single bukkit task once per tick. The amount of work done per
+ * tick is limited by a {@link TickBudget}.
+ * <p>
+ * <pre>{@code
+ * ExecutionBackend backend = PooledExecutionBackend.builder(plugin)
+ *         .threads(4)
+ *         .queueSize(1024)
+ *         .rejectionPolicy(new ThreadPoolExecutor.CallerRunsPolicy())
+ *         .build();
+ * }</pre>
+ *
+ * @since 1.8.0
+ */
+public final class PooledExecutionBackend implements ExecutionBackend {
+    private final ThreadPoolExecutor executor;
+    private final SyncTaskDrain drain;
+
+    private PooledExecutionBackend(Plugin plugin, ThreadPoolExecutor executor, TickBudget budget) {
+        this.executor = executor;
+        drain = new SyncTaskDrain(plugin, budget);
+    }
+
+    /**
+     * Create a new builder for a pooled backend.
+     *
+     * @param plugin plugin which owns the backend
+     * @return new builder
+     */
+    public static Builder builder(Plugin plugin) {
+        return new Builder(plugin);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        drain.submit(task);
+    }
+
+    /**
+     * Shut down the backend.
+     * <p>
+     * Async tasks which were already submitted will still be executed. Sync tasks which are still queued are executed
+     * immediately. Sync tasks which are submitted afterwards are rejected.
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        drain.shutdown();
+    }
+
+    /**
+     * Get the amount of async tasks which are waiting for a thread.
+     *
+     * @return amount of waiting tasks
+     */
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the amount of threads which currently execute a task.
+     *
+     * @return amount of active threads
+     */
+    public int getActiveThreads() {
+        return executor.getActiveCount();
+    }
+
+    public static final class Builder {
+        private final Plugin plugin;
+        private int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueSize = 1024;
+        private RejectedExecutionHandler rejectionPolicy = new ThreadPoolExecutor.AbortPolicy();
+        private TickBudget budget = TickBudget.adaptive();
+        private String threadName;
+
+        private Builder(Plugin plugin) {
+            this.plugin = plugin;
+            threadName = plugin.getName() + "-worker";
+        }
+
+        /**
+         * Set the amount of threads of the pool.
+         *
+         * @param threads amount of threads. Default is half of the available processors, but at least 2.
+         * @return builder instance
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("At least one thread is required.");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Set the amount of tasks which can wait for a thread.
+         *
+         * @param queueSize size of the queue. Default is 1024.
+         * @return builder instance
+         */
+        public Builder queueSize(int queueSize) {
+            if (queueSize < 1) {
+                throw new IllegalArgumentException("Queue size has to be at least 1.");
+            }
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * Set the policy which is applied when the queue is full.
+         *
+         * @param rejectionPolicy rejection policy. Default is {@link ThreadPoolExecutor.AbortPolicy}.
+         * @return builder instance
+         */
+        public Builder rejectionPolicy(RejectedExecutionHandler rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+            return this;
+        }
+
+        /**
+         * Set the budget for sync tasks per tick.
+         *
+         * @param budget budget. Default is {@link TickBudget#adaptive()}.
+         * @return builder instance
+         */
+        public Builder syncBudget(TickBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Set the name prefix of the threads.
+         *
+         * @param threadName name prefix. Default is the plugin name followed by "-worker".
+         * @return builder instance
+         */
+        public Builder threadName(String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        public PooledExecutionBackend build() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), new NamedThreadFactory(threadName), rejectionPolicy);
+            executor.allowCoreThreadTimeOut(true);
+            return new PooledExecutionBackend(plugin, executor, budget);
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
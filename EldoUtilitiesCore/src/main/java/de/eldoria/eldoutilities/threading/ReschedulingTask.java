@@ -3,21 +3,39 @@ package de.eldoria.eldoutilities.threading;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.function.Consumer;
+
 public abstract class ReschedulingTask {
+    /**
+     * Maximum amount of ticks in a row a deferrable task is skipped.
+     */
+    public static final int MAX_DEFERRED_TICKS = 20;
     private final Plugin plugin;
-    private BukkitRunnable task = null;
+    private final TaskMetrics metrics;
+    private volatile BukkitRunnable task = null;
+    private volatile TickSampler tickSampler = null;
+    private volatile TickBudget budget = null;
+    private int deferredTicks = 0;
+    // objects handled in the current tick. Only used by the main thread.
+    private int handledObjects = 0;
     private boolean active = true;
 
     public ReschedulingTask(Plugin plugin) {
         this.plugin = plugin;
+        metrics = TaskMetrics.register(this);
     }
 
     /**
      * Schedules the task if it is not running.
+     * <p>
+     * Scheduling and cancelling is synchronized and can be done from any thread.
      */
-    public void schedule() {
+    public synchronized void schedule() {
         if (!isActive()) return;
         if (!isRunning()) {
+            TickBudget budget = this.budget;
+            // the time while the task was paused is not a tick.
+            if (budget != null) budget.reset();
             task = new InternalTask(this::run);
             task.runTaskTimer(plugin, 0, 1);
             plugin.getLogger().fine(getClass().getSimpleName() + " of " + plugin.getName() + " started.");
@@ -27,7 +45,7 @@ public abstract class ReschedulingTask {
     /**
      * Cancel the task if it is running.
      */
-    public void cancel() {
+    public synchronized void cancel() {
         if (isRunning()) {
             task.cancel();
             task = null;
@@ -37,9 +55,12 @@ public abstract class ReschedulingTask {
 
     /**
      * Shuts down the scheduler. It can be not scheduled again after this.
+     * <p>
+     * The metrics of the task are no longer listed in {@link TaskMetrics#getMetrics(Plugin)} after this.
      */
     public void shutdown() {
         active = false;
+        TaskMetrics.unregister(this);
     }
 
     /**
@@ -64,10 +85,135 @@ public abstract class ReschedulingTask {
 
     public abstract void run();
 
+    /**
+     * Check if the deferrable work of this tick should be skipped.
+     * <p>
+     * Should be called once per tick by {@link #run()}. Bookkeeping like tick counters has to be done in every tick.
+     * Only the work which can be delayed should be skipped.
+     *
+     * @return true if the server is overloaded and the work should be skipped
+     * @since 1.8.0
+     */
+    protected final boolean deferTick() {
+        TickSampler sampler = tickSampler;
+        if (sampler != null && deferredTicks < MAX_DEFERRED_TICKS && sampler.isOverloaded()) {
+            deferredTicks++;
+            metrics.recordDeferredTick();
+            return true;
+        }
+        deferredTicks = 0;
+        return false;
+    }
+
+    /**
+     * Start the work of a tick.
+     * <p>
+     * Should be called by {@link #run()} before the first object is handled. Starts the tick of the budget.
+     *
+     * @since 1.8.0
+     */
+    protected final void startWork() {
+        handledObjects = 0;
+        TickBudget budget = this.budget;
+        if (budget != null) budget.startTick();
+    }
+
+    /**
+     * Check if the budget of this tick allows to handle another object.
+     *
+     * @return true if time is left or the task has no budget
+     * @since 1.8.0
+     */
+    protected final boolean hasTime() {
+        TickBudget budget = this.budget;
+        return budget == null || budget.hasTime();
+    }
+
+    /**
+     * Handle a object and record its duration in the metrics of this task.
+     *
+     * @param handler handler of the object
+     * @param object  object to handle
+     * @param <V>     type of the object
+     * @since 1.8.0
+     */
+    protected final <V> void handleTimed(Consumer<? super V> handler, V object) {
+        long start = System.nanoTime();
+        handler.accept(object);
+        metrics.recordItem(System.nanoTime() - start);
+        handledObjects++;
+    }
+
+    /**
+     * Finish the work of a tick and record it in the metrics of this task.
+     *
+     * @since 1.8.0
+     */
+    protected final void finishWork() {
+        TickBudget budget = this.budget;
+        metrics.recordTick(handledObjects, budget != null && budget.elapsedNanos() > budget.getBudgetNanos());
+    }
+
+    /**
+     * Get the time budget of this task per tick.
+     *
+     * @return budget or null if the task has no budget
+     * @since 1.8.0
+     */
+    public TickBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Set the time budget of this task per tick.
+     * <p>
+     * Without a budget all pending work is done in every tick.
+     *
+     * @param budget budget or null to remove the budget
+     * @since 1.8.0
+     */
+    public void setBudget(TickBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Get the sampler which is used to defer this task.
+     *
+     * @return sampler or null if the task is not deferrable
+     * @since 1.8.0
+     */
+    public TickSampler getTickSampler() {
+        return tickSampler;
+    }
+
+    /**
+     * Make this task deferrable.
+     * <p>
+     * A deferrable task skips its work while the sampler reports a overloaded server. The work is skipped at most
+     * {@value #MAX_DEFERRED_TICKS} ticks in a row. The task decides in {@link #run()} via {@link #deferTick()} which
+     * work is skipped. Queuing tasks and workers still count their ticks and only skip handling their objects.
+     *
+     * @param tickSampler sampler or null to make the task not deferrable
+     * @since 1.8.0
+     */
+    public void setTickSampler(TickSampler tickSampler) {
+        this.tickSampler = tickSampler;
+    }
+
     public Plugin getPlugin() {
         return plugin;
     }
 
+    /**
+     * Get the execution metrics of this task.
+     *
+     * @return metrics of this task
+     * @since 1.8.0
+     */
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
     private static class InternalTask extends BukkitRunnable {
         private final Runnable runnable;
 
@@ -0,0 +1,54 @@
+package de.eldoria.eldoutilities.threading;
+
+import de.eldoria.eldoutilities.scheduling.MpscQueue;
+import de.eldoria.eldoutilities.scheduling.QueuingSelfSchedulingTask;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+/**
+ * A task which executes tasks submitted from any thread on the main thread.
+ * <p>
+ * The drain pauses itself when no tasks were submitted for some time and is woken up by the next submitted task. The
+ * amount of work per tick is limited by a {@link TickBudget}.
+ * <p>
+ * Tasks which were submitted before the drain was shut down are executed by the shutdown. Tasks which are submitted
+ * afterwards are rejected. They would have to run on the submitting thread, which is usually not the main thread.
+ *
+ * @since 1.8.0
+ */
+final class SyncTaskDrain extends QueuingSelfSchedulingTask<Runnable> {
+
+    SyncTaskDrain(Plugin plugin, TickBudget budget) {
+        super(plugin);
+        setBudget(budget);
+    }
+
+    /**
+     * Submit a task which will be executed on the main thread.
+     *
+     * @param task task to execute
+     * @throws RejectedExecutionException if the drain was shut down
+     */
+    void submit(Runnable task) {
+        if (!queue(task)) {
+            throw new RejectedExecutionException("The sync task drain of " + getPlugin().getName() + " was shut down.");
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            getPlugin().getLogger().log(Level.SEVERE, "An error occured in a synced task.", e);
+        }
+    }
+
+    @Override
+    protected Queue<Runnable> getQueueImplementation() {
+        return new MpscQueue<>();
+    }
+}
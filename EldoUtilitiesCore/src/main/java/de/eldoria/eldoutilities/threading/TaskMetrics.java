@@ -0,0 +1,216 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Execution metrics of a {@link ReschedulingTask}.
+ * <p>
+ * Every rescheduling task owns one instance. All instances are registered and can be retrieved via {@link
+ * #getMetrics(Plugin)} as long as their task is referenced.
+ * <p>
+ * All counters are {@link LongAdder}s. Recording is cheap and can be done from any thread.
+ *
+ * @since 1.8.0
+ */
+public final class TaskMetrics {
+    private static final Map<ReschedulingTask, TaskMetrics> REGISTRY = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String name;
+    private final String plugin;
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder ticksOverBudget = new LongAdder();
+    private final LongAdder idleCancels = new LongAdder();
+    private final LongAdder deferredTicks = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile int maxItemsPerTick = 0;
+    private volatile IntSupplier queueDepth = () -> 0;
+    private final Map<String, LongSupplier> gauges = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private TaskMetrics(String name, String plugin) {
+        this.name = name;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Create and register the metrics of a task.
+     *
+     * @param task task to create metrics for
+     * @return new metrics
+     */
+    static TaskMetrics register(ReschedulingTask task) {
+        String name = task.getClass().getSimpleName().isEmpty() ? task.getClass().getName() : task.getClass().getSimpleName();
+        TaskMetrics metrics = new TaskMetrics(name, task.getPlugin().getName());
+        REGISTRY.put(task, metrics);
+        return metrics;
+    }
+
+    /**
+     * Remove the metrics of a task from the registry.
+     * <p>
+     * The registry only holds its tasks weakly, but the gauges of a task may reference the task itself. Tasks have to
+     * be unregistered explicitly when they are shut down.
+     *
+     * @param task task to remove
+     */
+    static void unregister(ReschedulingTask task) {
+        REGISTRY.remove(task);
+    }
+
+    /**
+     * Get the metrics of all tasks of a plugin.
+     *
+     * @param plugin plugin which owns the tasks
+     * @return metrics of the tasks
+     */
+    public static List<TaskMetrics> getMetrics(Plugin plugin) {
+        synchronized (REGISTRY) {
+            return REGISTRY.values().stream()
+                    .filter(metrics -> metrics.plugin.equals(plugin.getName()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Record the execution of a single item.
+     *
+     * @param nanos execution time in nanoseconds
+     */
+    public void recordItem(long nanos) {
+        items.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * Record a processed tick.
+     *
+     * @param items      amount of items processed in this tick
+     * @param overBudget true if the tick exceeded the time budget of the task
+     */
+    public void recordTick(int items, boolean overBudget) {
+        ticks.increment();
+        if (overBudget) ticksOverBudget.increment();
+        // only written by the ticking thread.
+        if (items > maxItemsPerTick) maxItemsPerTick = items;
+    }
+
+    /**
+     * Record that the task cancelled itself after being idle.
+     */
+    public void recordIdleCancel() {
+        idleCancels.increment();
+    }
+
+    /**
+     * Record that the task skipped a tick because the server was overloaded.
+     */
+    public void recordDeferredTick() {
+        deferredTicks.increment();
+    }
+
+    /**
+     * Set the source of the queue depth.
+     *
+     * @param queueDepth supplier of the current queue depth
+     */
+    public void setQueueDepth(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Add a additional value which is reported with the metrics.
+     *
+     * @param name  name of the value
+     * @param gauge supplier of the current value
+     */
+    public void addGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Get the current values of the additional gauges.
+     *
+     * @return values by name
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        synchronized (gauges) {
+            gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        }
+        return values;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    /**
+     * Get the average amount of items processed per tick.
+     *
+     * @return average items per tick
+     */
+    public double getItemsPerTick() {
+        long ticks = getTicks();
+        return ticks == 0 ? 0 : getItems() / (double) ticks;
+    }
+
+    public int getMaxItemsPerTick() {
+        return maxItemsPerTick;
+    }
+
+    public long getTicksOverBudget() {
+        return ticksOverBudget.sum();
+    }
+
+    public long getIdleCancels() {
+        return idleCancels.sum();
+    }
+
+    public long getDeferredTicks() {
+        return deferredTicks.sum();
+    }
+
+    /**
+     * Get a percentile of the item execution time.
+     *
+     * @param percentile percentile between 0 and 1
+     * @return upper bound of the percentile in nanoseconds
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder gaugeText = new StringBuilder();
+        getGauges().forEach((name, value) -> gaugeText.append(", ").append(name).append(' ').append(value));
+        return String.format("%s: depth %d, ticks %d, items %d, items/tick %.2f (max %d), p50 %dµs, p99 %dµs, over budget %d, idle cancels %d, deferred %d",
+                name, getQueueDepth(), getTicks(), getItems(), getItemsPerTick(), getMaxItemsPerTick(),
+                TimeUnit.NANOSECONDS.toMicros(getLatencyPercentile(0.5)),
+                TimeUnit.NANOSECONDS.toMicros(getLatencyPercentile(0.99)),
+                getTicksOverBudget(), getIdleCancels(), getDeferredTicks()) + gaugeText;
+    }
+}
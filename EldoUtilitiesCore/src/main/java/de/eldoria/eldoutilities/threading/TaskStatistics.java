@@ -1,5 +1,7 @@
 package de.eldoria.eldoutilities.threading;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Statistics used in {@link IteratingTask}.
  *
@@ -7,21 +9,46 @@ package de.eldoria.eldoutilities.threading;
  */
 public class TaskStatistics {
     private int processedElements;
-    private long time;
+    private long timeNanos;
 
     public void processElement() {
         this.processedElements++;
     }
 
     public void addTime(long time) {
-        this.time += time;
+        this.timeNanos += TimeUnit.MILLISECONDS.toNanos(time);
+    }
+
+    /**
+     * Add time in nanoseconds.
+     *
+     * @param time time in nanoseconds
+     * @since 1.8.0
+     */
+    public void addTimeNanos(long time) {
+        this.timeNanos += time;
     }
 
     public int getProcessedElements() {
         return processedElements;
     }
 
+    /**
+     * Get the time spent on the elements.
+     *
+     * @return time in milliseconds
+     */
     public long getTime() {
-        return time;
+        return TimeUnit.NANOSECONDS.toMillis(timeNanos);
+    }
+
+    /**
+     * Get the time spent on the elements.
+     *
+     * @return time in nanoseconds
+     * @since 1.8.0
+     */
+    public long getTimeNanos() {
+        return timeNanos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package de.eldoria.eldoutilities.threading;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A time budget for work which is executed once per tick.
+ * <p>
+ * The budget measures the time between two ticks. If a tick took longer than {@link #TICK_NANOS} the server has no
+ * headroom left and the budget is reduced by the overshoot. If the server keeps up, the budget grows back towards its
+ * maximum. The budget never leaves the configured bounds.
+ * <p>
+ * A new budget starts at its maximum. Work which is queued directly after the start is not throttled until the server
+ * is actually overloaded.
+ * <p>
+ * Call {@link #startTick()} once at the start of every tick and check {@link #hasTime()} before every unit of work.
+ * <p>
+ * A budget should only be used by one task.
+ *
+ * @since 1.8.0
+ */
+public class TickBudget {
+    /**
+     * Duration of a tick at 20 TPS.
+     */
+    public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long DEFAULT_MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DEFAULT_MAX_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+    /**
+     * Tick durations above this are caused by a paused task and not by the server.
+     */
+    private static final long MAX_MEASURED_NANOS = TICK_NANOS * 20;
+    /**
+     * Share of the distance to the maximum budget which is added after a tick without overshoot.
+     */
+    private static final int GROWTH_DIVISOR = 8;
+    private static final long MIN_GROWTH_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final long minBudget;
+    private final long maxBudget;
+    private final LongSupplier clock;
+    private long budget;
+    private boolean measuring = false;
+    private long tickStart = 0;
+    private long deadline = 0;
+
+    /**
+     * Create a new adaptive budget.
+     *
+     * @param minBudget minimal budget per tick. This budget is granted even when the server is overloaded.
+     * @param maxBudget maximal budget per tick
+     * @param unit      unit of the budgets
+     */
+    public TickBudget(long minBudget, long maxBudget, TimeUnit unit) {
+        this(minBudget, maxBudget, unit, System::nanoTime);
+    }
+
+    /**
+     * Create a new adaptive budget with a custom clock.
+     *
+     * @param minBudget minimal budget per tick
+     * @param maxBudget maximal budget per tick
+     * @param unit      unit of the budgets
+     * @param clock     clock which returns the current time in nanoseconds
+     */
+    TickBudget(long minBudget, long maxBudget, TimeUnit unit, LongSupplier clock) {
+        if (minBudget < 0 || maxBudget < minBudget) {
+            throw new IllegalArgumentException("Budget bounds have to be positive and min has to be smaller than max.");
+        }
+        this.minBudget = unit.toNanos(minBudget);
+        this.maxBudget = unit.toNanos(maxBudget);
+        this.clock = clock;
+        budget = this.maxBudget;
+    }
+
+    /**
+     * Create a new adaptive budget between 1 and 25 ms.
+     *
+     * @return new budget
+     */
+    public static TickBudget adaptive() {
+        return new TickBudget(DEFAULT_MIN_NANOS, DEFAULT_MAX_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create a new budget which does not adapt to the server.
+     *
+     * @param budget budget per tick
+     * @param unit   unit of the budget
+     * @return new budget
+     */
+    public static TickBudget fixed(long budget, TimeUnit unit) {
+        return new TickBudget(budget, budget, unit);
+    }
+
+    /**
+     * Start a new tick.
+     * <p>
+     * This adjusts the budget based on the duration of the last tick and starts the time of this tick.
+     */
+    public void startTick() {
+        long now = clock.getAsLong();
+        if (measuring) {
+            long duration = now - tickStart;
+            if (duration <= MAX_MEASURED_NANOS) {
+                adjust(duration);
+            }
+        }
+        measuring = true;
+        tickStart = now;
+        deadline = now + budget;
+    }
+
+    private void adjust(long tickDuration) {
+        long overshoot = tickDuration - TICK_NANOS;
+        if (overshoot > 0) {
+            budget = Math.max(minBudget, budget - overshoot);
+        } else {
+            long growth = Math.max((maxBudget - budget) / GROWTH_DIVISOR, MIN_GROWTH_NANOS);
+            budget = Math.min(maxBudget, budget + growth);
+        }
+    }
+
+    /**
+     * Check if there is time left in the current tick.
+     *
+     * @return true if the budget of this tick is not used up.
+     */
+    public boolean hasTime() {
+        return clock.getAsLong() - deadline < 0;
+    }
+
+    /**
+     * Get the time which elapsed since the start of the tick.
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long elapsedNanos() {
+        return clock.getAsLong() - tickStart;
+    }
+
+    /**
+     * Forget the last tick. The next tick will not be measured.
+     * <p>
+     * Should be called when the task was paused.
+     */
+    public void reset() {
+        measuring = false;
+    }
+
+    /**
+     * Get the current budget per tick.
+     *
+     * @return budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budget;
+    }
+
+    public long getMinBudgetNanos() {
+        return minBudget;
+    }
+
+    public long getMaxBudgetNanos() {
+        return maxBudget;
+    }
+}
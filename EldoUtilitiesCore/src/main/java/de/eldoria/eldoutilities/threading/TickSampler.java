@@ -0,0 +1,218 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the duration of the last server ticks.
+ * <p>
+ * The start of every tick is recorded by a task which runs once per tick. On paper servers the duration of every tick
+ * is reported by the server and contains only the time the server actually worked. On other servers the duration is
+ * the time between two tick starts and is never shorter than {@link TickBudget#TICK_NANOS}.
+ * <p>
+ * The last {@link #SAMPLES} ticks are kept in a ring buffer. The sampler can be queried from any thread. Values read
+ * from other threads may be one tick old.
+ * <p>
+ * A {@link ReschedulingTask} can be made deferrable with {@link ReschedulingTask#setTickSampler(TickSampler)}. It will
+ * skip its deferrable work while the sampler reports a overloaded server.
+ *
+ * @since 1.8.0
+ */
+public final class TickSampler {
+    /**
+     * Amount of ticks which are kept.
+     */
+    public static final int SAMPLES = 100;
+    /**
+     * Amount of ticks which are used to decide if the server is overloaded.
+     */
+    private static final int RECENT_TICKS = 20;
+    private static final long REPORTED_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(45);
+    // about 19 tps. measured ticks are never shorter than 50 ms.
+    private static final long MEASURED_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(52_500);
+    private static final String TICK_END_EVENT = "com.destroystokyo.paper.event.server.ServerTickEndEvent";
+
+    private final long[] starts = new long[SAMPLES];
+    private final long[] durations = new long[SAMPLES];
+    private final Listener listener = new Listener() {
+    };
+    private final Method tickDuration;
+    private volatile long startCount = 0;
+    private volatile long durationCount = 0;
+    private volatile long thresholdNanos;
+    private BukkitRunnable timer;
+
+    private TickSampler(Method tickDuration) {
+        this.tickDuration = tickDuration;
+        thresholdNanos = tickDuration == null ? MEASURED_THRESHOLD_NANOS : REPORTED_THRESHOLD_NANOS;
+    }
+
+    /**
+     * Start a new tick sampler.
+     * <p>
+     * The sampler has to be shut down via {@link #shutdown()} when it is no longer used.
+     *
+     * @param plugin plugin which owns the sampler
+     * @return new running sampler
+     */
+    public static TickSampler start(Plugin plugin) {
+        Class<? extends Event> tickEndEvent = null;
+        Method tickDuration = null;
+        try {
+            tickEndEvent = Class.forName(TICK_END_EVENT).asSubclass(Event.class);
+            tickDuration = tickEndEvent.getMethod("getTickDuration");
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // not a paper server. The duration is measured between tick starts.
+        }
+
+        TickSampler sampler = new TickSampler(tickDuration);
+        if (tickEndEvent != null) {
+            Class<? extends Event> eventClass = tickEndEvent;
+            Bukkit.getPluginManager().registerEvent(eventClass, sampler.listener, EventPriority.MONITOR,
+                    (listener, event) -> {
+                        if (eventClass.isInstance(event)) sampler.recordReportedDuration(event);
+                    }, plugin);
+        }
+        sampler.timer = new BukkitRunnable() {
+            @Override
+            public void run() {
+                sampler.recordStart(System.nanoTime());
+            }
+        };
+        sampler.timer.runTaskTimer(plugin, 0, 1);
+        return sampler;
+    }
+
+    private void recordReportedDuration(Event event) {
+        try {
+            double millis = (double) tickDuration.invoke(event);
+            recordDuration((long) (millis * 1_000_000));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // should not happen. The method is public.
+        }
+    }
+
+    private void recordStart(long now) {
+        long count = startCount;
+        if (tickDuration == null && count != 0) {
+            recordDuration(now - starts[(int) ((count - 1) % SAMPLES)]);
+        }
+        starts[(int) (count % SAMPLES)] = now;
+        startCount = count + 1;
+    }
+
+    private void recordDuration(long nanos) {
+        long count = durationCount;
+        durations[(int) (count % SAMPLES)] = nanos;
+        durationCount = count + 1;
+    }
+
+    /**
+     * Get the average duration of the last ticks.
+     *
+     * @param ticks amount of ticks. Values above {@link #SAMPLES} are capped.
+     * @return average duration in nanoseconds or 0 if no tick was recorded yet
+     */
+    public long getAverageTickNanos(int ticks) {
+        long count = durationCount;
+        int amount = (int) Math.min(Math.min(ticks, SAMPLES), count);
+        if (amount <= 0) return 0;
+        long sum = 0;
+        for (long i = count - amount; i < count; i++) {
+            sum += durations[(int) (i % SAMPLES)];
+        }
+        return sum / amount;
+    }
+
+    /**
+     * Get the longest tick of the last {@link #SAMPLES} ticks.
+     *
+     * @return duration in nanoseconds or 0 if no tick was recorded yet
+     */
+    public long getMaxTickNanos() {
+        long count = durationCount;
+        int amount = (int) Math.min(SAMPLES, count);
+        long max = 0;
+        for (long i = count - amount; i < count; i++) {
+            max = Math.max(max, durations[(int) (i % SAMPLES)]);
+        }
+        return max;
+    }
+
+    /**
+     * Get the average milliseconds per tick of the last {@link #SAMPLES} ticks.
+     *
+     * @return milliseconds per tick
+     */
+    public double getMspt() {
+        return getAverageTickNanos(SAMPLES) / 1_000_000.0;
+    }
+
+    /**
+     * Get the ticks per second of the last {@link #SAMPLES} ticks.
+     *
+     * @return ticks per second. At most 20.
+     */
+    public double getTps() {
+        long count = startCount;
+        int amount = (int) Math.min(SAMPLES, count);
+        if (amount < 2) return 20;
+        long span = starts[(int) ((count - 1) % SAMPLES)] - starts[(int) ((count - amount) % SAMPLES)];
+        if (span <= 0) return 20;
+        return Math.min(20, (amount - 1) * (double) TimeUnit.SECONDS.toNanos(1) / span);
+    }
+
+    /**
+     * Check if the average duration of the last {@value #RECENT_TICKS} ticks is above the threshold.
+     *
+     * @return true if the server is overloaded
+     */
+    public boolean isOverloaded() {
+        return getAverageTickNanos(RECENT_TICKS) > thresholdNanos;
+    }
+
+    /**
+     * Check if the tick durations are reported by the server.
+     *
+     * @return true if the durations are reported. False if they are measured between tick starts.
+     */
+    public boolean reportsTickDurations() {
+        return tickDuration != null;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Set the tick duration above which the server is considered overloaded.
+     * <p>
+     * The default is 45 ms if the server reports tick durations and 52.5 ms otherwise.
+     *
+     * @param threshold threshold
+     * @param unit      unit of the threshold
+     */
+    public void setThreshold(long threshold, TimeUnit unit) {
+        thresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * Stop sampling.
+     */
+    public void shutdown() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        HandlerList.unregisterAll(listener);
+    }
+}
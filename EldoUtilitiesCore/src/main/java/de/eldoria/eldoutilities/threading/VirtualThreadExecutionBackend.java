@@ -0,0 +1,120 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link ExecutionBackend} which executes every async task on a own virtual thread.
+ * <p>
+ * Virtual threads are available since Java 21. They are detected at runtime via reflection. Use {@link #isSupported()}
+ * to check if the running JVM supports them or {@link ExecutionBackend#createVirtualThreads(Plugin)} to fall back to
+ * the bukkit scheduler.
+ * <p>
+ * Every backend owns a sync task drain. Keep the backend and call {@link #shutdown()} when it is no longer used.
+ * <p>
+ * Blocking calls like database queries or http requests only block the virtual thread. Thousands of them can run
+ * concurrently without occupying a platform thread each.
+ * <p>
+ * Sync tasks are collected in a queue and executed by a single bukkit task once per tick.
+ *
+ * @since 1.8.0
+ */
+public final class VirtualThreadExecutionBackend implements ExecutionBackend {
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method newExecutor = null;
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            // Java 19 and 20 provide the api as preview, which throws when preview features are disabled.
+            ofVirtual.invoke(null);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException
+                | InvocationTargetException e) {
+            // Java versions before 21 or disabled preview features
+            newExecutor = null;
+        }
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    private final ExecutorService executor;
+    private final SyncTaskDrain drain;
+
+    private VirtualThreadExecutionBackend(Plugin plugin, ExecutorService executor) {
+        this.executor = executor;
+        drain = new SyncTaskDrain(plugin, TickBudget.adaptive());
+    }
+
+    /**
+     * Check if the running JVM supports virtual threads.
+     *
+     * @return true if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Create a new virtual thread backend.
+     * <p>
+     * The threads are named after the plugin.
+     *
+     * @param plugin plugin which owns the backend
+     * @return new backend
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static VirtualThreadExecutionBackend create(Plugin plugin) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer. Running on "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, plugin.getName() + "-virtual-", 0L);
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            ExecutorService executor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            return new VirtualThreadExecutionBackend(plugin, executor);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Could not create virtual thread executor.", e);
+        }
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        drain.submit(task);
+    }
+
+    /**
+     * Shut down the backend.
+     * <p>
+     * Async tasks which were already submitted will still be executed. Sync tasks which are still queued are executed
+     * immediately. Sync tasks which are submitted afterwards are rejected.
+     */
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+        drain.shutdown();
+    }
+}
@@ -0,0 +1,297 @@
+package de.eldoria.eldoutilities.voronoi;
+
+import de.eldoria.eldoutilities.voronoi.feature.Feature;
+import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
+import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Array backed alternative to {@link Voronoi}.
+ * <p>
+ * The tree is a bucket quadtree whose nodes and feature coordinates are stored in flat primitive arrays. Features of a
+ * leaf are chained via an index list, so inserting never moves coordinates. Nodes are split into four children when a
+ * leaf holds more than {@link #LEAF_CAPACITY} features.
+ * <p>
+ * Closest feature lookups are answered with a branch and bound search over the tight bounding boxes of the nodes. The
+ * search itself does not allocate any objects. Use {@link #getClosestFeature(double, double)} to avoid the allocation
+ * of the {@link WeightedFeature} result as well.
+ * <p>
+ * The {@link VoronoiSettings#getMinFragmentSize()} is not used by this implementation. Leafs are split by feature
+ * count instead.
+ * <p>
+ * This class is not thread safe. Writes have to be synchronized externally.
+ *
+ * @param <Dim>         type of dimension implementation
+ * @param <FeatureType> type of feature implementation
+ * @since 1.8.0
+ */
+public class FlatVoronoi<Dim, FeatureType extends Feature<Dim>> {
+    /**
+     * Max amount of features in a leaf before it gets split.
+     */
+    public static final int LEAF_CAPACITY = 8;
+    private static final int NONE = -1;
+    private static final double MIN_HALF_SIZE = 0.5;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final DimensionAdapter<Dim> dimensionAdapter;
+
+    // feature data
+    private Object[] features = new Object[INITIAL_CAPACITY];
+    private double[] featureX = new double[INITIAL_CAPACITY];
+    private double[] featureZ = new double[INITIAL_CAPACITY];
+    private int[] nextFeature = new int[INITIAL_CAPACITY];
+    private int featureCount = 0;
+
+    // node data. geometry is stored as center x, center z and half size. bounds as min x, min z, max x and max z.
+    private double[] nodeGeometry = new double[INITIAL_CAPACITY * 3];
+    private double[] nodeBounds = new double[INITIAL_CAPACITY * 4];
+    private int[] nodeChild = new int[INITIAL_CAPACITY];
+    private int[] nodeHead = new int[INITIAL_CAPACITY];
+    private int[] nodeSize = new int[INITIAL_CAPACITY];
+    private int nodeCount = 0;
+
+    public FlatVoronoi(Dim center, int size, DimensionAdapter<Dim> dimensionAdapter) {
+        this.dimensionAdapter = dimensionAdapter;
+        createNode(dimensionAdapter.getX(center), dimensionAdapter.getZ(center), size / 2d);
+    }
+
+    /**
+     * Creates a new array backed voronoi diagram
+     *
+     * @param settings         settings of voronoi
+     * @param dimensionAdapter adapter for dimension mapping
+     * @param <Dim>            type of dimension implementation
+     * @param <FeatureType>    type of feature implementation
+     * @return voronoi instance
+     */
+    public static <Dim, FeatureType extends Feature<Dim>> FlatVoronoi<Dim, FeatureType> create(VoronoiSettings<Dim> settings, DimensionAdapter<Dim> dimensionAdapter) {
+        return new FlatVoronoi<>(settings.getCenter(), settings.getRadius() * 2, dimensionAdapter);
+    }
+
+    /**
+     * Add a feature to the diagram.
+     *
+     * @param feature feature to add
+     */
+    public void addFeature(FeatureType feature) {
+        double x = dimensionAdapter.getX(feature.getPos());
+        double z = dimensionAdapter.getZ(feature.getPos());
+        int index = featureCount;
+        ensureFeatureCapacity(index + 1);
+        features[index] = feature;
+        featureX[index] = x;
+        featureZ[index] = z;
+        featureCount++;
+
+        int node = 0;
+        while (true) {
+            extendBounds(node, x, z);
+            nodeSize[node]++;
+            if (nodeChild[node] != NONE) {
+                node = nodeChild[node] + quadrant(node, x, z);
+                continue;
+            }
+            nextFeature[index] = nodeHead[node];
+            nodeHead[node] = index;
+            splitIfFull(node);
+            return;
+        }
+    }
+
+    /**
+     * Get the amount of features in this diagram.
+     *
+     * @return feature count
+     */
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public boolean isEmpty() {
+        return featureCount == 0;
+    }
+
+    /**
+     * Get all features of the diagram in insertion order.
+     *
+     * @return unmodifiable collection of features
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<FeatureType> getFeatures() {
+        List<FeatureType> result = new ArrayList<>(featureCount);
+        for (int i = 0; i < featureCount; i++) {
+            result.add((FeatureType) features[i]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Get the closest feature to a position.
+     *
+     * @param pos position
+     * @return the closest feature or null if the diagram is empty.
+     */
+    public WeightedFeature<Dim, FeatureType> getClosestFeature(Dim pos) {
+        FeatureType feature = getClosestFeature(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+        if (feature == null) return null;
+        return WeightedFeature.weight(pos, feature, dimensionAdapter);
+    }
+
+    /**
+     * Get the closest feature to a position.
+     * <p>
+     * This method does not allocate any objects.
+     *
+     * @param x x coordinate of position
+     * @param z z coordinate of position
+     * @return the closest feature or null if the diagram is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public FeatureType getClosestFeature(double x, double z) {
+        int index = getClosestFeatureIndex(x, z);
+        return index == NONE ? null : (FeatureType) features[index];
+    }
+
+    /**
+     * Get the internal index of the closest feature to a position.
+     *
+     * @param x x coordinate of position
+     * @param z z coordinate of position
+     * @return index of the feature in insertion order or -1 if the diagram is empty
+     */
+    public int getClosestFeatureIndex(double x, double z) {
+        if (featureCount == 0) return NONE;
+        return nearest(0, x, z, NONE);
+    }
+
+    private int nearest(int node, double x, double z, int best) {
+        double bestDist = best == NONE ? Double.POSITIVE_INFINITY : distanceSquared(best, x, z);
+        if (nodeSize[node] == 0 || boundsDistanceSquared(node, x, z) >= bestDist) {
+            return best;
+        }
+
+        int child = nodeChild[node];
+        if (child == NONE) {
+            for (int curr = nodeHead[node]; curr != NONE; curr = nextFeature[curr]) {
+                double dist = distanceSquared(curr, x, z);
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = curr;
+                }
+            }
+            return best;
+        }
+
+        // visit the quadrant of the position first, then the direct neighbours and the diagonal one at last.
+        int first = quadrant(node, x, z);
+        best = nearest(child + first, x, z, best);
+        best = nearest(child + (first ^ 1), x, z, best);
+        best = nearest(child + (first ^ 2), x, z, best);
+        return nearest(child + (first ^ 3), x, z, best);
+    }
+
+    private double distanceSquared(int feature, double x, double z) {
+        double dx = featureX[feature] - x;
+        double dz = featureZ[feature] - z;
+        return dx * dx + dz * dz;
+    }
+
+    private double boundsDistanceSquared(int node, double x, double z) {
+        int offset = node * 4;
+        double dx = Math.max(0, Math.max(nodeBounds[offset] - x, x - nodeBounds[offset + 2]));
+        double dz = Math.max(0, Math.max(nodeBounds[offset + 1] - z, z - nodeBounds[offset + 3]));
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Get the quadrant of the position relative to the node center.
+     * <p>
+     * Bit 0 is set for the east and bit 1 for the north half.
+     */
+    private int quadrant(int node, double x, double z) {
+        int offset = node * 3;
+        return (x >= nodeGeometry[offset] ? 1 : 0) | (z >= nodeGeometry[offset + 1] ? 2 : 0);
+    }
+
+    private void splitIfFull(int node) {
+        int offset = node * 3;
+        double half = nodeGeometry[offset + 2];
+        if (nodeSize[node] <= LEAF_CAPACITY || half / 2 < MIN_HALF_SIZE) return;
+
+        double centerX = nodeGeometry[offset];
+        double centerZ = nodeGeometry[offset + 1];
+        double quarter = half / 2;
+        int child = createNode(centerX - quarter, centerZ - quarter, quarter);
+        createNode(centerX + quarter, centerZ - quarter, quarter);
+        createNode(centerX - quarter, centerZ + quarter, quarter);
+        createNode(centerX + quarter, centerZ + quarter, quarter);
+        nodeChild[node] = child;
+
+        int curr = nodeHead[node];
+        nodeHead[node] = NONE;
+        while (curr != NONE) {
+            int next = nextFeature[curr];
+            int target = child + quadrant(node, featureX[curr], featureZ[curr]);
+            nextFeature[curr] = nodeHead[target];
+            nodeHead[target] = curr;
+            nodeSize[target]++;
+            extendBounds(target, featureX[curr], featureZ[curr]);
+            curr = next;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            splitIfFull(child + i);
+        }
+    }
+
+    private int createNode(double centerX, double centerZ, double half) {
+        int node = nodeCount;
+        ensureNodeCapacity(node + 1);
+        nodeGeometry[node * 3] = centerX;
+        nodeGeometry[node * 3 + 1] = centerZ;
+        nodeGeometry[node * 3 + 2] = half;
+        nodeBounds[node * 4] = Double.POSITIVE_INFINITY;
+        nodeBounds[node * 4 + 1] = Double.POSITIVE_INFINITY;
+        nodeBounds[node * 4 + 2] = Double.NEGATIVE_INFINITY;
+        nodeBounds[node * 4 + 3] = Double.NEGATIVE_INFINITY;
+        nodeChild[node] = NONE;
+        nodeHead[node] = NONE;
+        nodeSize[node] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    private void extendBounds(int node, double x, double z) {
+        int offset = node * 4;
+        if (x < nodeBounds[offset]) nodeBounds[offset] = x;
+        if (z < nodeBounds[offset + 1]) nodeBounds[offset + 1] = z;
+        if (x > nodeBounds[offset + 2]) nodeBounds[offset + 2] = x;
+        if (z > nodeBounds[offset + 3]) nodeBounds[offset + 3] = z;
+    }
+
+    private void ensureFeatureCapacity(int capacity) {
+        if (capacity <= features.length) return;
+        int newCapacity = Math.max(capacity, features.length * 2);
+        features = Arrays.copyOf(features, newCapacity);
+        featureX = Arrays.copyOf(featureX, newCapacity);
+        featureZ = Arrays.copyOf(featureZ, newCapacity);
+        nextFeature = Arrays.copyOf(nextFeature, newCapacity);
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= nodeChild.length) return;
+        int newCapacity = Math.max(capacity, nodeChild.length * 2);
+        nodeGeometry = Arrays.copyOf(nodeGeometry, newCapacity * 3);
+        nodeBounds = Arrays.copyOf(nodeBounds, newCapacity * 4);
+        nodeChild = Arrays.copyOf(nodeChild, newCapacity);
+        nodeHead = Arrays.copyOf(nodeHead, newCapacity);
+        nodeSize = Arrays.copyOf(nodeSize, newCapacity);
+    }
+}
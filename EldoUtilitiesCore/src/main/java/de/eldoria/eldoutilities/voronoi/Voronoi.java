@@ -1,14 +1,50 @@
 package de.eldoria.eldoutilities.voronoi;
 
+import de.eldoria.eldoutilities.container.Pair;
 import de.eldoria.eldoutilities.voronoi.feature.Feature;
+import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.untis.Chunk;
 import de.eldoria.eldoutilities.voronoi.untis.Fragment;
 import de.eldoria.eldoutilities.voronoi.untis.VoronoiUnit;
 import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
 import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A voronoi diagram backed by a tree of {@link Fragment}s and {@link Chunk}s.
+ * <p>
+ * Sectors of fragments are created under the lock of the fragment and published afterwards. Reads never lock. If
+ * {@link VoronoiSettings#isConcurrent()} is set, chunks store their features in copy on write lists. Features can then
+ * be added and removed by one thread while other threads query the voronoi. Otherwise, writes have to be synchronized
+ * with reads externally.
+ * <p>
+ * Every fragment caches the amount of features in it. Removing a feature walks down a single path and removes units
+ * which become empty.
+ *
+ * @param <Dim>         type of dimension implementation
+ * @param <FeatureType> type of feature implementation
+ */
 public class Voronoi<Dim, FeatureType extends Feature<Dim>> extends Fragment<Dim, FeatureType> {
+    /**
+     * Amount of features below which a sub tree is built in the current thread.
+     */
+    private static final int PARALLEL_BUILD_THRESHOLD = 2048;
+    /**
+     * Amount of points below which a grid query is processed in the current thread.
+     */
+    private static final int PARALLEL_QUERY_THRESHOLD = 64 * 64;
+    private final VoronoiSettings<Dim> settings;
+    private final AtomicLong modificationCount = new AtomicLong();
+
     public Voronoi(Dim center, int size, VoronoiSettings<Dim> settings, DimensionAdapter<Dim> dimensionAdapter) {
         super(null, center, size, settings, dimensionAdapter);
+        this.settings = settings;
     }
 
     /**
@@ -25,8 +61,266 @@ public class Voronoi<Dim, FeatureType extends Feature<Dim>> extends Fragment<Dim
         return new Voronoi<>(settings.getCenter(), size, settings, dimensionAdapter);
     }
 
+    /**
+     * Adds a bulk of features to the voronoi.
+     * <p>
+     * The features are partitioned by sector and the sub trees are built in parallel on the common fork join pool.
+     * <p>
+     * The voronoi should not be accessed by other threads until this method returns.
+     *
+     * @param features features to add
+     * @since 1.8.0
+     */
+    public void build(Collection<FeatureType> features) {
+        build(features, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Adds a bulk of features to the voronoi.
+     * <p>
+     * The features are partitioned by sector and the sub trees are built in parallel on the provided pool.
+     * <p>
+     * The voronoi should not be accessed by other threads until this method returns.
+     *
+     * @param features features to add
+     * @param pool     pool to build the sub trees on
+     * @since 1.8.0
+     */
+    public void build(Collection<FeatureType> features, ForkJoinPool pool) {
+        if (features.isEmpty()) return;
+        pool.invoke(new BuildTask<>(this, features));
+        modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void addFeature(FeatureType feature) {
+        super.addFeature(feature);
+        modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public void addFeatures(Collection<FeatureType> features) {
+        // the fragment adds the features to its sectors directly and would skip addFeature of this voronoi.
+        super.addFeatures(features);
+        modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean removeFeature(FeatureType feature) {
+        if (!super.removeFeature(feature)) {
+            return false;
+        }
+        modificationCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Get the amount of modifications of this voronoi.
+     * <p>
+     * The count changes every time a feature is added or removed. It can be used to detect if cached results are
+     * outdated.
+     *
+     * @return modification count
+     * @since 1.8.0
+     */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Get the closest features for a list of points.
+     * <p>
+     * The points should be ordered in a way that neighbouring points are close to each other. Features around the
+     * last point are reused as long as the points stay in the same area, which makes the lookup of each point nearly
+     * constant.
+     *
+     * @param points  points to search the closest features for
+     * @param results array which will be filled with the closest features. The index is the index of the point. The
+     *                array needs to be at least as large as the list of points.
+     * @since 1.8.0
+     */
+    public void getClosestFeatures(List<Dim> points, FeatureType[] results) {
+        QueryCursor cursor = new QueryCursor();
+        for (int i = 0; i < points.size(); i++) {
+            Dim point = points.get(i);
+            results[i] = cursor.find(dimensionAdapter.getX(point), dimensionAdapter.getZ(point));
+        }
+    }
+
+    /**
+     * Get the closest features for each block of a grid.
+     * <p>
+     * The grid is split into tiles which are processed in parallel on the common fork join pool. Each tile reuses the
+     * features of the last searched area, which makes the lookup of each point nearly constant.
+     *
+     * @param origin  the point with the lowest x and z value of the grid
+     * @param sizeX   size of the grid on the x axis
+     * @param sizeZ   size of the grid on the z axis
+     * @param results array which will be filled with the closest features. The feature of the point {@code origin +
+     *                (x, z)} is stored at {@code x * sizeZ + z}.
+     * @since 1.8.0
+     */
+    public void getClosestFeatures(Dim origin, int sizeX, int sizeZ, FeatureType[] results) {
+        getClosestFeatures(origin, sizeX, sizeZ, results, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get the closest features for each block of a grid.
+     * <p>
+     * The grid is split into tiles which are processed in parallel on the provided pool. Each tile reuses the features
+     * of the last searched area, which makes the lookup of each point nearly constant.
+     *
+     * @param origin  the point with the lowest x and z value of the grid
+     * @param sizeX   size of the grid on the x axis
+     * @param sizeZ   size of the grid on the z axis
+     * @param results array which will be filled with the closest features. The feature of the point {@code origin +
+     *                (x, z)} is stored at {@code x * sizeZ + z}.
+     * @param pool    pool to process the tiles on
+     * @since 1.8.0
+     */
+    public void getClosestFeatures(Dim origin, int sizeX, int sizeZ, FeatureType[] results, ForkJoinPool pool) {
+        if (sizeX <= 0 || sizeZ <= 0) return;
+        pool.invoke(new GridQueryTask(dimensionAdapter.getX(origin), dimensionAdapter.getZ(origin), sizeZ, results,
+                0, sizeX, 0, sizeZ));
+    }
+
     @Override
     public int getLayerCount(int count) {
         return count;
     }
+
+    /**
+     * A cursor which caches the features around the last searched area.
+     * <p>
+     * The cursor collects all features in a area which is one cell larger in every direction than the cell of the last
+     * point. A feature found in this area is only accepted if it is closer than the border of the area. Otherwise a
+     * regular lookup is performed.
+     */
+    private class QueryCursor {
+        private final double cellSize = Math.max(1, settings.getMinFragmentSize());
+        private final List<FeatureType> candidates = new ArrayList<>();
+        private double[] candidateX = new double[16];
+        private double[] candidateZ = new double[16];
+        private double cellMinX = Double.NaN;
+        private double cellMinZ = Double.NaN;
+
+        private FeatureType find(double x, double z) {
+            if (!(x >= cellMinX && x < cellMinX + cellSize && z >= cellMinZ && z < cellMinZ + cellSize)) {
+                load(x, z);
+            }
+
+            int best = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < candidates.size(); i++) {
+                double dx = candidateX[i] - x;
+                double dz = candidateZ[i] - z;
+                double dist = dx * dx + dz * dz;
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = i;
+                }
+            }
+
+            // distance to the border of the collected area. Every feature outside of it is further away.
+            double border = Math.min(
+                    Math.min(x - (cellMinX - cellSize), cellMinX + 2 * cellSize - x),
+                    Math.min(z - (cellMinZ - cellSize), cellMinZ + 2 * cellSize - z));
+            if (best != -1 && bestDist <= border * border) {
+                return candidates.get(best);
+            }
+
+            WeightedFeature<Dim, FeatureType> closest = getClosestFeature(x, z);
+            return closest == null ? null : closest.getFeature();
+        }
+
+        private void load(double x, double z) {
+            cellMinX = Math.floor(x / cellSize) * cellSize;
+            cellMinZ = Math.floor(z / cellSize) * cellSize;
+            candidates.clear();
+            collectFeatures(cellMinX - cellSize, cellMinZ - cellSize,
+                    cellMinX + 2 * cellSize, cellMinZ + 2 * cellSize, candidates);
+            if (candidateX.length < candidates.size()) {
+                candidateX = new double[candidates.size()];
+                candidateZ = new double[candidates.size()];
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                Dim pos = candidates.get(i).getPos();
+                candidateX[i] = dimensionAdapter.getX(pos);
+                candidateZ[i] = dimensionAdapter.getZ(pos);
+            }
+        }
+    }
+
+    private class GridQueryTask extends RecursiveAction {
+        private final double originX;
+        private final double originZ;
+        private final int sizeZ;
+        private final FeatureType[] results;
+        private final int fromX;
+        private final int toX;
+        private final int fromZ;
+        private final int toZ;
+
+        private GridQueryTask(double originX, double originZ, int sizeZ, FeatureType[] results,
+                              int fromX, int toX, int fromZ, int toZ) {
+            this.originX = originX;
+            this.originZ = originZ;
+            this.sizeZ = sizeZ;
+            this.results = results;
+            this.fromX = fromX;
+            this.toX = toX;
+            this.fromZ = fromZ;
+            this.toZ = toZ;
+        }
+
+        @Override
+        protected void compute() {
+            int width = toX - fromX;
+            int depth = toZ - fromZ;
+            if (width * depth <= PARALLEL_QUERY_THRESHOLD) {
+                QueryCursor cursor = new QueryCursor();
+                for (int x = fromX; x < toX; x++) {
+                    for (int z = fromZ; z < toZ; z++) {
+                        results[x * sizeZ + z] = cursor.find(originX + x, originZ + z);
+                    }
+                }
+                return;
+            }
+
+            if (width >= depth) {
+                int half = fromX + width / 2;
+                invokeAll(new GridQueryTask(originX, originZ, sizeZ, results, fromX, half, fromZ, toZ),
+                        new GridQueryTask(originX, originZ, sizeZ, results, half, toX, fromZ, toZ));
+            } else {
+                int half = fromZ + depth / 2;
+                invokeAll(new GridQueryTask(originX, originZ, sizeZ, results, fromX, toX, fromZ, half),
+                        new GridQueryTask(originX, originZ, sizeZ, results, fromX, toX, half, toZ));
+            }
+        }
+    }
+
+    private static class BuildTask<Dim, FeatureType extends Feature<Dim>> extends RecursiveAction {
+        private final VoronoiUnit<Dim, FeatureType> unit;
+        private final Collection<FeatureType> features;
+
+        private BuildTask(VoronoiUnit<Dim, FeatureType> unit, Collection<FeatureType> features) {
+            this.unit = unit;
+            this.features = features;
+        }
+
+        @Override
+        protected void compute() {
+            if (!(unit instanceof Fragment) || features.size() < PARALLEL_BUILD_THRESHOLD) {
+                unit.addFeatures(features);
+                return;
+            }
+
+            // Each fragment is owned by exactly one task. This makes the lazy creation of the sectors safe.
+            List<BuildTask<Dim, FeatureType>> tasks = new ArrayList<>(4);
+            for (Pair<VoronoiUnit<Dim, FeatureType>, List<FeatureType>> sector : ((Fragment<Dim, FeatureType>) unit).partition(features)) {
+                tasks.add(new BuildTask<>(sector.first, sector.second));
+            }
+            invokeAll(tasks);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package de.eldoria.eldoutilities.voronoi;
+
+import de.eldoria.eldoutilities.voronoi.feature.Feature;
+import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache which remembers the owning feature of 16x16 columns of a {@link Voronoi}.
+ * <p>
+ * Voronoi cells are convex. If all four corners of a column have the same closest feature, this feature is the closest
+ * feature for every position in the column. Lookups inside such a column are answered without touching the voronoi.
+ * Columns which are split between multiple cells are remembered as well and always delegate to the voronoi.
+ * <p>
+ * The cache holds a limited amount of columns and evicts the least recently used ones. It is cleared when the
+ * {@link Voronoi#getModificationCount()} of the voronoi changes.
+ * <p>
+ * This class is thread safe as long as the voronoi is not modified concurrently.
+ *
+ * @param <Dim>         type of dimension implementation
+ * @param <FeatureType> type of feature implementation
+ * @since 1.8.0
+ */
+public class VoronoiOwnershipCache<Dim, FeatureType extends Feature<Dim>> {
+    /**
+     * Size of a cached column.
+     */
+    public static final int COLUMN_SIZE = 16;
+    private static final int COLUMN_SHIFT = 4;
+    private static final Object MIXED = new Object();
+
+    private final Voronoi<Dim, FeatureType> voronoi;
+    private final DimensionAdapter<Dim> dimensionAdapter;
+    private final Map<Long, Object> owners;
+    private long modificationCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param voronoi    voronoi to cache
+     * @param maxColumns max amount of cached columns
+     */
+    public VoronoiOwnershipCache(Voronoi<Dim, FeatureType> voronoi, int maxColumns) {
+        if (maxColumns < 1) {
+            throw new IllegalArgumentException("The cache has to hold at least one column.");
+        }
+        this.voronoi = voronoi;
+        this.dimensionAdapter = voronoi.getDimensionAdapter();
+        this.modificationCount = voronoi.getModificationCount();
+        this.owners = new LinkedHashMap<Long, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+                return size() > maxColumns;
+            }
+        };
+    }
+
+    /**
+     * Get the closest feature to a position.
+     *
+     * @param pos position
+     * @return the closest feature or null if the voronoi is empty.
+     */
+    public WeightedFeature<Dim, FeatureType> getClosestFeature(Dim pos) {
+        FeatureType owner = getOwner(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+        if (owner != null) {
+            return WeightedFeature.weight(pos, owner, dimensionAdapter);
+        }
+        return voronoi.getClosestFeature(pos);
+    }
+
+    /**
+     * Get the feature which owns the whole column of a position.
+     *
+     * @param x x value of position
+     * @param z z value of position
+     * @return the owning feature or null if the column is split between multiple cells or the voronoi is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public FeatureType getOwner(double x, double z) {
+        int columnX = (int) Math.floor(x) >> COLUMN_SHIFT;
+        int columnZ = (int) Math.floor(z) >> COLUMN_SHIFT;
+        long key = (long) columnX << 32 | columnZ & 0xFFFFFFFFL;
+
+        long currentModification = voronoi.getModificationCount();
+        Object owner;
+        synchronized (owners) {
+            if (modificationCount != currentModification) {
+                owners.clear();
+                modificationCount = currentModification;
+            }
+            owner = owners.get(key);
+        }
+
+        if (owner == null) {
+            owner = computeOwner(columnX << COLUMN_SHIFT, columnZ << COLUMN_SHIFT);
+            if (owner == null) return null;
+            synchronized (owners) {
+                // do not store results which were computed on a outdated voronoi.
+                if (modificationCount == currentModification) {
+                    owners.put(key, owner);
+                }
+            }
+        }
+        return owner == MIXED ? null : (FeatureType) owner;
+    }
+
+    /**
+     * Removes all cached columns.
+     */
+    public void invalidate() {
+        synchronized (owners) {
+            owners.clear();
+        }
+    }
+
+    /**
+     * Get the amount of cached columns.
+     *
+     * @return cached columns
+     */
+    public int size() {
+        synchronized (owners) {
+            return owners.size();
+        }
+    }
+
+    private Object computeOwner(int minX, int minZ) {
+        FeatureType owner = closest(minX, minZ);
+        if (owner == null) return null;
+        if (owner != closest(minX + COLUMN_SIZE, minZ)
+                || owner != closest(minX, minZ + COLUMN_SIZE)
+                || owner != closest(minX + COLUMN_SIZE, minZ + COLUMN_SIZE)) {
+            return MIXED;
+        }
+        return owner;
+    }
+
+    private FeatureType closest(double x, double z) {
+        WeightedFeature<Dim, FeatureType> closest = voronoi.getClosestFeature(x, z);
+        return closest == null ? null : closest.getFeature();
+    }
+}
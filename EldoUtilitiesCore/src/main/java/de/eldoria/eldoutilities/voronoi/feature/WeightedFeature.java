@@ -16,6 +16,10 @@ public final class WeightedFeature<Dim, FeatureType extends Feature<Dim>> implem
         return new WeightedFeature<>(feature, adapter.distanceSquared(feature.getPos(), pos));
     }
 
+    public static <Dim, FeatureType extends Feature<Dim>> WeightedFeature<Dim, FeatureType> of(FeatureType feature, double distanceSquared) {
+        return new WeightedFeature<>(feature, distanceSquared);
+    }
+
     public double getDistanceSquared() {
         return distance;
     }
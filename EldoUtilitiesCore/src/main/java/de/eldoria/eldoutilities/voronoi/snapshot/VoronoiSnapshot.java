@@ -0,0 +1,233 @@
+package de.eldoria.eldoutilities.voronoi.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.FEATURE_BYTES;
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.HEADER_BYTES;
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.MAGIC;
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.NODE_BYTES;
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.NONE;
+import static de.eldoria.eldoutilities.voronoi.snapshot.VoronoiSnapshotWriter.VERSION;
+
+/**
+ * A read only voronoi which is served directly from a memory mapped snapshot file.
+ * <p>
+ * The snapshot is not loaded into the heap. Pages of the file are loaded by the operating system when they are
+ * accessed. Opening a snapshot reads the header and validates the links of the nodes. Features are not read.
+ * <p>
+ * Features are identified by the id which was provided when the snapshot was written. Use {@link
+ * #getClosestFeature(double, double, IntFunction)} to resolve the id into a feature again.
+ * <p>
+ * This class is thread safe. Queries only use absolute reads on the mapped buffer.
+ *
+ * @since 1.8.0
+ */
+public final class VoronoiSnapshot {
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int featureCount;
+    private final int featureOffset;
+
+    private VoronoiSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("File is not a voronoi snapshot.");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ".");
+        }
+        nodeCount = buffer.getInt(8);
+        featureCount = buffer.getInt(12);
+        if (nodeCount < 0 || featureCount < 0) {
+            throw new IOException("Snapshot file is corrupted.");
+        }
+        // computed as long. A corrupted header could overflow the offsets otherwise.
+        long nodeEnd = HEADER_BYTES + (long) nodeCount * NODE_BYTES;
+        if (nodeEnd > buffer.capacity()
+                || buffer.capacity() != nodeEnd + (long) featureCount * FEATURE_BYTES) {
+            throw new IOException("Snapshot file is corrupted.");
+        }
+        featureOffset = (int) nodeEnd;
+        validateNodes();
+    }
+
+    /**
+     * Checks that the nodes form a tree in breadth first order and only reference stored features.
+     * <p>
+     * Queries trust the links of the nodes. Corrupted links would read outside of the sections or recurse endlessly.
+     *
+     * @throws IOException if a link is invalid
+     */
+    private void validateNodes() throws IOException {
+        if (nodeCount == 0) {
+            if (featureCount != 0) throw new IOException("Snapshot file is corrupted.");
+            return;
+        }
+        // the children of a node have to start at the first node which has no parent yet.
+        long next = 1;
+        long levelEnd = 1;
+        int depth = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (node >= next) {
+                throw new IOException("Snapshot file is corrupted. Node " + node + " has no parent.");
+            }
+            if (node == levelEnd) {
+                // the size of a fragment is a int which is halved on every level.
+                if (++depth > Integer.SIZE) {
+                    throw new IOException("Snapshot file is corrupted. The tree is too deep.");
+                }
+                levelEnd = next;
+            }
+            int offset = HEADER_BYTES + node * NODE_BYTES;
+            int firstChild = buffer.getInt(offset + 32);
+            int childCount = buffer.getInt(offset + 36);
+            if (firstChild == NONE) {
+                int firstFeature = buffer.getInt(offset + 40);
+                int count = buffer.getInt(offset + 44);
+                if (firstFeature < 0 || count < 0 || (long) firstFeature + count > featureCount) {
+                    throw new IOException("Snapshot file is corrupted. Node " + node + " references invalid features.");
+                }
+            } else {
+                if (firstChild != next || childCount < 0 || next + childCount > nodeCount) {
+                    throw new IOException("Snapshot file is corrupted. Node " + node + " references invalid nodes.");
+                }
+                next += childCount;
+            }
+        }
+    }
+
+    /**
+     * Opens a snapshot file.
+     * <p>
+     * The mapping stays valid until this snapshot is garbage collected. The file should not be modified while it is
+     * mapped.
+     *
+     * @param path path of the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file could not be mapped or is not a valid snapshot
+     */
+    public static VoronoiSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file is too large to be mapped.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new VoronoiSnapshot(buffer);
+        }
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public boolean isEmpty() {
+        return featureCount == 0;
+    }
+
+    /**
+     * Get the closest feature to a position.
+     *
+     * @param x        x coordinate of position
+     * @param z        z coordinate of position
+     * @param resolver function to resolve the feature id into the feature
+     * @param <T>      type of feature
+     * @return the resolved feature or null if the snapshot is empty
+     */
+    public <T> T getClosestFeature(double x, double z, IntFunction<T> resolver) {
+        int index = getClosestFeatureIndex(x, z);
+        return index == NONE ? null : resolver.apply(getFeatureId(index));
+    }
+
+    /**
+     * Get the index of the closest feature to a position.
+     * <p>
+     * This method does not allocate any objects.
+     *
+     * @param x x coordinate of position
+     * @param z z coordinate of position
+     * @return index of the feature in the snapshot or -1 if the snapshot is empty
+     */
+    public int getClosestFeatureIndex(double x, double z) {
+        if (featureCount == 0) return NONE;
+        return nearest(0, x, z, NONE);
+    }
+
+    /**
+     * Get the id of a feature.
+     *
+     * @param index index of the feature in the snapshot
+     * @return id of the feature
+     */
+    public int getFeatureId(int index) {
+        return buffer.getInt(featureOffset(index) + 16);
+    }
+
+    public double getFeatureX(int index) {
+        return buffer.getDouble(featureOffset(index));
+    }
+
+    public double getFeatureZ(int index) {
+        return buffer.getDouble(featureOffset(index) + 8);
+    }
+
+    private int nearest(int node, double x, double z, int best) {
+        double bestDist = best == NONE ? Double.POSITIVE_INFINITY : distanceSquared(best, x, z);
+        if (boundsDistanceSquared(node, x, z) >= bestDist) {
+            return best;
+        }
+
+        int offset = HEADER_BYTES + node * NODE_BYTES;
+        int firstChild = buffer.getInt(offset + 32);
+        int childCount = buffer.getInt(offset + 36);
+        if (firstChild == NONE) {
+            int firstFeature = buffer.getInt(offset + 40);
+            int end = firstFeature + buffer.getInt(offset + 44);
+            for (int feature = firstFeature; feature < end; feature++) {
+                double dist = distanceSquared(feature, x, z);
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = feature;
+                }
+            }
+            return best;
+        }
+
+        // visit the children which contain the position first.
+        for (int child = firstChild; child < firstChild + childCount; child++) {
+            if (boundsDistanceSquared(child, x, z) == 0) {
+                best = nearest(child, x, z, best);
+            }
+        }
+        for (int child = firstChild; child < firstChild + childCount; child++) {
+            if (boundsDistanceSquared(child, x, z) != 0) {
+                best = nearest(child, x, z, best);
+            }
+        }
+        return best;
+    }
+
+    private double distanceSquared(int feature, double x, double z) {
+        int offset = featureOffset(feature);
+        double dx = buffer.getDouble(offset) - x;
+        double dz = buffer.getDouble(offset + 8) - z;
+        return dx * dx + dz * dz;
+    }
+
+    private double boundsDistanceSquared(int node, double x, double z) {
+        int offset = HEADER_BYTES + node * NODE_BYTES;
+        double dx = Math.max(0, Math.max(buffer.getDouble(offset) - x, x - buffer.getDouble(offset + 16)));
+        double dz = Math.max(0, Math.max(buffer.getDouble(offset + 8) - z, z - buffer.getDouble(offset + 24)));
+        return dx * dx + dz * dz;
+    }
+
+    private int featureOffset(int index) {
+        return featureOffset + index * FEATURE_BYTES;
+    }
+}
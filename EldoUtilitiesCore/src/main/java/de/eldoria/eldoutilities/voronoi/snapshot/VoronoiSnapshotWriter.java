@@ -0,0 +1,139 @@
+package de.eldoria.eldoutilities.voronoi.snapshot;
+
+import de.eldoria.eldoutilities.voronoi.feature.Feature;
+import de.eldoria.eldoutilities.voronoi.untis.Fragment;
+import de.eldoria.eldoutilities.voronoi.untis.VoronoiUnit;
+import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes a voronoi tree into a binary snapshot which can be loaded with {@link VoronoiSnapshot}.
+ * <p>
+ * The nodes are written in breadth first order, so the children of a node are stored next to each other. Each node
+ * stores the bounding box of the features in it. Empty units are not written.
+ * <p>
+ * Features are stored as their coordinates and a id. The id is provided by the caller and can be used to resolve the
+ * feature again after loading the snapshot.
+ *
+ * @since 1.8.0
+ */
+public final class VoronoiSnapshotWriter {
+    static final int MAGIC = 0x45564E53;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int NODE_BYTES = 48;
+    static final int FEATURE_BYTES = 24;
+    static final int NONE = -1;
+
+    private VoronoiSnapshotWriter() {
+    }
+
+    /**
+     * Writes a snapshot of the voronoi.
+     * <p>
+     * The snapshot is written into a temporary file first, which is moved to the target path afterwards. A existing
+     * file will be replaced.
+     * <p>
+     * The voronoi should not be modified while the snapshot is written.
+     *
+     * @param root          root unit of the voronoi. Usually the voronoi itself.
+     * @param featureId     function to retrieve the id of a feature
+     * @param path          path of the snapshot file
+     * @param <Dim>         type of dimension implementation
+     * @param <FeatureType> type of feature implementation
+     * @throws IOException if the file could not be written
+     */
+    public static <Dim, FeatureType extends Feature<Dim>> void write(VoronoiUnit<Dim, FeatureType> root,
+                                                                     ToIntFunction<FeatureType> featureId,
+                                                                     Path path) throws IOException {
+        DimensionAdapter<Dim> adapter = root.getDimensionAdapter();
+        List<VoronoiUnit<Dim, FeatureType>> units = new ArrayList<>();
+        List<int[]> links = new ArrayList<>();
+        List<FeatureType> features = new ArrayList<>();
+
+        if (!root.isEmpty()) {
+            units.add(root);
+        }
+
+        // breadth first traversal. The children of a unit are added at the end and are therefore stored in a row.
+        for (int i = 0; i < units.size(); i++) {
+            VoronoiUnit<Dim, FeatureType> unit = units.get(i);
+            // first child, child count, first feature, feature count
+            int[] link = {NONE, 0, NONE, 0};
+            if (unit instanceof Fragment) {
+                link[0] = units.size();
+                for (VoronoiUnit<Dim, FeatureType> sector : ((Fragment<Dim, FeatureType>) unit).getPresentSectors()) {
+                    if (sector.isEmpty()) continue;
+                    units.add(sector);
+                    link[1]++;
+                }
+            } else {
+                Collection<FeatureType> unitFeatures = unit.getFeatures();
+                link[2] = features.size();
+                link[3] = unitFeatures.size();
+                features.addAll(unitFeatures);
+            }
+            links.add(link);
+        }
+
+        // children are always stored after their parent. Iterating backwards allows to merge the bounds bottom up.
+        double[] bounds = new double[units.size() * 4];
+        for (int i = units.size() - 1; i >= 0; i--) {
+            int[] link = links.get(i);
+            double minX = Double.POSITIVE_INFINITY;
+            double minZ = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxZ = Double.NEGATIVE_INFINITY;
+            for (int child = link[0]; child < link[0] + link[1]; child++) {
+                minX = Math.min(minX, bounds[child * 4]);
+                minZ = Math.min(minZ, bounds[child * 4 + 1]);
+                maxX = Math.max(maxX, bounds[child * 4 + 2]);
+                maxZ = Math.max(maxZ, bounds[child * 4 + 3]);
+            }
+            for (int feature = link[2]; feature < link[2] + link[3]; feature++) {
+                Dim pos = features.get(feature).getPos();
+                minX = Math.min(minX, adapter.getX(pos));
+                minZ = Math.min(minZ, adapter.getZ(pos));
+                maxX = Math.max(maxX, adapter.getX(pos));
+                maxZ = Math.max(maxZ, adapter.getZ(pos));
+            }
+            bounds[i * 4] = minX;
+            bounds[i * 4 + 1] = minZ;
+            bounds[i * 4 + 2] = maxX;
+            bounds[i * 4 + 3] = maxZ;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(units.size());
+            out.writeInt(features.size());
+            for (int i = 0; i < units.size(); i++) {
+                for (int j = 0; j < 4; j++) {
+                    out.writeDouble(bounds[i * 4 + j]);
+                }
+                for (int value : links.get(i)) {
+                    out.writeInt(value);
+                }
+            }
+            for (FeatureType feature : features) {
+                out.writeDouble(adapter.getX(feature.getPos()));
+                out.writeDouble(adapter.getZ(feature.getPos()));
+                out.writeInt(featureId.applyAsInt(feature));
+                out.writeInt(0);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -7,12 +7,32 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Chunk<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit<Dim, FeatureType> {
-    private List<FeatureType> features = new ArrayList<>();
+    private final List<FeatureType> features;
+    private final boolean concurrent;
 
     public Chunk(VoronoiUnit<Dim, FeatureType> parent, Dim center, int size, DimensionAdapter<Dim> dimensionAdapter) {
+        this(parent, center, size, dimensionAdapter, false);
+    }
+
+    /**
+     * Creates a new chunk.
+     *
+     * @param parent           parent unit
+     * @param center           center of the chunk
+     * @param size             size of the chunk
+     * @param dimensionAdapter adapter for dimension mapping
+     * @param concurrent       true to store the features in a copy on write list, which can be read while features
+     *                         are added.
+     * @since 1.8.0
+     */
+    public Chunk(VoronoiUnit<Dim, FeatureType> parent, Dim center, int size, DimensionAdapter<Dim> dimensionAdapter,
+                 boolean concurrent) {
         super(parent, center, size, dimensionAdapter);
+        this.concurrent = concurrent;
+        features = concurrent ? new CopyOnWriteArrayList<>() : new ArrayList<>();
     }
 
     @Override
@@ -30,6 +50,16 @@ public class Chunk<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit<Di
         features.add(feature);
     }
 
+    @Override
+    public boolean removeFeature(FeatureType feature) {
+        return features.remove(feature);
+    }
+
+    @Override
+    public void addFeatures(Collection<FeatureType> features) {
+        this.features.addAll(features);
+    }
+
     @Override
     public Collection<FeatureType> getFeatures() {
         return Collections.unmodifiableCollection(features);
@@ -52,4 +82,31 @@ public class Chunk<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit<Di
         }
         return this;
     }
+
+    @Override
+    protected VoronoiUnit<Dim, FeatureType> findLayerUnit(double x, double z, int count) {
+        if (count != 0) {
+            throw new IndexOutOfBoundsException("The requested layer is below chunk level");
+        }
+        return this;
+    }
+
+    @Override
+    protected FeatureType findClosestFeature(double x, double z, FeatureType closest) {
+        if (concurrent) {
+            // features may be removed while we iterate. Only the iterator of the copy on write list is safe.
+            return super.findClosestFeature(x, z, closest);
+        }
+        double closestDistance = closest == null ? Double.MAX_VALUE : distanceSquared(closest, x, z);
+        // index based loop. Iterators would be allocated for every lookup.
+        for (int i = 0; i < features.size(); i++) {
+            FeatureType feature = features.get(i);
+            double distance = distanceSquared(feature, x, z);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = feature;
+            }
+        }
+        return closest;
+    }
 }
@@ -1,23 +1,30 @@
 package de.eldoria.eldoutilities.voronoi.untis;
 
+import de.eldoria.eldoutilities.container.Pair;
 import de.eldoria.eldoutilities.voronoi.feature.Feature;
 import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.util.BoundedHeap;
 import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
 import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class Fragment<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit<Dim, FeatureType> {
-    private VoronoiUnit<Dim, FeatureType> upperLeftSector;
-    private VoronoiUnit<Dim, FeatureType> upperRightSector;
-    private VoronoiUnit<Dim, FeatureType> lowerLeftSector;
-    private VoronoiUnit<Dim, FeatureType> lowerRightSector;
+    private static final int QUADRANTS = 4;
+    // sectors are published once they are fully created. This allows lock free reads while the tree grows.
+    private volatile VoronoiUnit<Dim, FeatureType> upperLeftSector;
+    private volatile VoronoiUnit<Dim, FeatureType> upperRightSector;
+    private volatile VoronoiUnit<Dim, FeatureType> lowerLeftSector;
+    private volatile VoronoiUnit<Dim, FeatureType> lowerRightSector;
     private final VoronoiSettings<Dim> settings;
+    private final AtomicInteger featureCount = new AtomicInteger();
+    // empty units returned for absent sectors. Created on demand and reused afterwards.
+    private VoronoiUnit<Dim, FeatureType>[] emptySectors;
 
     public Fragment(VoronoiUnit<Dim, FeatureType> parent, Dim center, int size, VoronoiSettings<Dim> settings,
                     DimensionAdapter<Dim> dimensionAdapter) {
@@ -27,30 +34,130 @@ public class Fragment<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit
 
     @Override
     public boolean isEmpty() {
-        for (VoronoiUnit<Dim, FeatureType> sector : getSectors()) {
-            if (!sector.isEmpty()) {
-                return false;
-            }
-        }
-        return true;
+        return featureCount.get() == 0;
     }
 
     @Override
     public int getFeatureCount() {
-        int count = 0;
-        for (VoronoiUnit<Dim, FeatureType> sector : getSectors()) {
-            count += sector.getFeatureCount();
+        return featureCount.get();
+    }
+
+    /**
+     * Get the sectors of this fragment which were already created.
+     * <p>
+     * This will not create any units.
+     *
+     * @return list of present sectors
+     * @since 1.8.0
+     */
+    public List<VoronoiUnit<Dim, FeatureType>> getPresentSectors() {
+        List<VoronoiUnit<Dim, FeatureType>> sectors = new ArrayList<>(4);
+        for (int i = 0; i < QUADRANTS; i++) {
+            VoronoiUnit<Dim, FeatureType> sector = sector(i);
+            if (sector != null) sectors.add(sector);
         }
-        return count;
+        return sectors;
     }
 
-    private Collection<VoronoiUnit<Dim, FeatureType>> getSectors() {
-        return Arrays.asList(getUpperLeftSectorOrEmpty(), getUpperRightSectorOrEmpty(), getLowerLeftOrEmpty(), getLowerRightOrEmpty());
+    /**
+     * Get a sector by its quadrant index. Bit 0 of the index is set for east and bit 1 for south.
+     * <p>
+     * Reads the sector field directly. Traversals read every field once without allocating.
+     *
+     * @param quadrant index of the quadrant between 0 and {@link #QUADRANTS} - 1
+     * @return the sector or null if it is not present
+     */
+    private VoronoiUnit<Dim, FeatureType> sector(int quadrant) {
+        switch (quadrant) {
+            case 0:
+                return upperLeftSector;
+            case 1:
+                return upperRightSector;
+            case 2:
+                return lowerLeftSector;
+            default:
+                return lowerRightSector;
+        }
     }
 
     @Override
     public void addFeature(FeatureType feature) {
         getSector(feature).addFeature(feature);
+        featureCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean removeFeature(FeatureType feature) {
+        Dim pos = feature.getPos();
+        VoronoiUnit<Dim, FeatureType> sector = getSectorOrNull(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+        if (sector == null || !sector.removeFeature(feature)) {
+            return false;
+        }
+        featureCount.decrementAndGet();
+        if (sector.isEmpty()) {
+            collapse(sector);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a empty sector from this fragment. Lookups will use a empty unit afterwards.
+     *
+     * @param sector sector to remove
+     */
+    private synchronized void collapse(VoronoiUnit<Dim, FeatureType> sector) {
+        // the sector may have received features in the meantime.
+        if (!sector.isEmpty()) return;
+        if (upperLeftSector == sector) {
+            upperLeftSector = null;
+        } else if (upperRightSector == sector) {
+            upperRightSector = null;
+        } else if (lowerLeftSector == sector) {
+            lowerLeftSector = null;
+        } else if (lowerRightSector == sector) {
+            lowerRightSector = null;
+        }
+    }
+
+    @Override
+    public void addFeatures(Collection<FeatureType> features) {
+        for (Pair<VoronoiUnit<Dim, FeatureType>, List<FeatureType>> sector : partition(features)) {
+            sector.first.addFeatures(sector.second);
+        }
+    }
+
+    /**
+     * Splits the features into the sectors of this fragment.
+     * <p>
+     * Sectors which receive features will be created if they are not present yet.
+     * <p>
+     * The features are counted as features of this fragment. The caller has to add them to the returned sectors.
+     *
+     * @param features features to split
+     * @return list of sectors with the features which belong into them. Sectors without features are not included.
+     */
+    public List<Pair<VoronoiUnit<Dim, FeatureType>, List<FeatureType>>> partition(Collection<FeatureType> features) {
+        List<FeatureType> upperLeft = new ArrayList<>();
+        List<FeatureType> upperRight = new ArrayList<>();
+        List<FeatureType> lowerLeft = new ArrayList<>();
+        List<FeatureType> lowerRight = new ArrayList<>();
+        for (FeatureType feature : features) {
+            int xComp = dimensionAdapter.xCompare(feature.getPos(), center);
+            int zComp = dimensionAdapter.zCompare(feature.getPos(), center);
+            if (xComp != -1) {
+                (zComp == -1 ? lowerRight : upperRight).add(feature);
+            } else {
+                (zComp == -1 ? lowerLeft : upperLeft).add(feature);
+            }
+        }
+
+        featureCount.addAndGet(features.size());
+        List<Pair<VoronoiUnit<Dim, FeatureType>, List<FeatureType>>> sectors = new ArrayList<>(4);
+        if (!upperLeft.isEmpty()) sectors.add(Pair.of(getUpperLeftSector(), upperLeft));
+        if (!upperRight.isEmpty()) sectors.add(Pair.of(getUpperRightSector(), upperRight));
+        if (!lowerLeft.isEmpty()) sectors.add(Pair.of(getLowerLeftSector(), lowerLeft));
+        if (!lowerRight.isEmpty()) sectors.add(Pair.of(getLowerRightSector(), lowerRight));
+        return sectors;
     }
 
     protected VoronoiUnit<Dim, FeatureType> getSector(FeatureType feature) {
@@ -79,15 +186,65 @@ public class Fragment<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit
         }
     }
 
+    /**
+     * Get the sector which contains the position.
+     *
+     * @param x x value of position
+     * @param z z value of position
+     * @return the sector or null if it is not present
+     */
+    private VoronoiUnit<Dim, FeatureType> getSectorOrNull(double x, double z) {
+        if (x >= centerX) {
+            return z < centerZ ? lowerRightSector : upperRightSector;
+        }
+        return z < centerZ ? lowerLeftSector : upperLeftSector;
+    }
+
     @Override
     public Collection<FeatureType> getFeatures() {
         List<FeatureType> features = new ArrayList<>();
-        for (VoronoiUnit<Dim, FeatureType> sector : getSectors()) {
-            features.addAll(sector.getFeatures());
+        for (int i = 0; i < QUADRANTS; i++) {
+            VoronoiUnit<Dim, FeatureType> sector = sector(i);
+            if (sector != null) features.addAll(sector.getFeatures());
         }
         return features;
     }
 
+    @Override
+    public void collectFeatures(double minX, double minZ, double maxX, double maxZ, Collection<FeatureType> target) {
+        if (!intersects(minX, minZ, maxX, maxZ)) return;
+        // only visit present sectors. We dont want to create units while reading.
+        for (int i = 0; i < QUADRANTS; i++) {
+            VoronoiUnit<Dim, FeatureType> sector = sector(i);
+            if (sector != null) sector.collectFeatures(minX, minZ, maxX, maxZ, target);
+        }
+    }
+
+    @Override
+    protected void collectClosest(double x, double z, BoundedHeap<FeatureType> heap) {
+        if (boundsDistanceSquared(x, z) >= heap.bound()) return;
+        // visit the sector of the position first. This will shrink the bound of the heap as early as possible.
+        boolean east = x >= centerX;
+        boolean north = z >= centerZ;
+        int first = (east ? 1 : 0) | (north ? 0 : 2);
+        VoronoiUnit<Dim, FeatureType> sector = sector(first);
+        if (sector != null) sector.collectClosest(x, z, heap);
+        for (int i = 0; i < QUADRANTS; i++) {
+            if (i == first) continue;
+            sector = sector(i);
+            if (sector != null) sector.collectClosest(x, z, heap);
+        }
+    }
+
+    @Override
+    protected void collectWithin(double x, double z, double radiusSquared, List<WeightedFeature<Dim, FeatureType>> result) {
+        if (boundsDistanceSquared(x, z) > radiusSquared) return;
+        for (int i = 0; i < QUADRANTS; i++) {
+            VoronoiUnit<Dim, FeatureType> sector = sector(i);
+            if (sector != null) sector.collectWithin(x, z, radiusSquared, result);
+        }
+    }
+
     @Override
     public Chunk<Dim, FeatureType> getChunk(Dim point) {
         return getSector(point).getChunk(point);
@@ -107,49 +264,98 @@ public class Fragment<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit
     }
 
     @Override
-    public WeightedFeature<Dim, FeatureType> getClosestFeature(Dim pos) {
+    protected VoronoiUnit<Dim, FeatureType> findLayerUnit(double x, double z, int count) {
+        if (count == 0) {
+            return this;
+        }
+        VoronoiUnit<Dim, FeatureType> sector = getSectorOrNull(x, z);
+        return sector == null ? null : sector.findLayerUnit(x, z, count - 1);
+    }
+
+    @Override
+    public WeightedFeature<Dim, FeatureType> getClosestFeature(double x, double z) {
         // lets check if we can still reduce the total features
-        VoronoiUnit<Dim, FeatureType> sector = getSector(pos);
-        if (sector.getFeatureCount() < 2) {
-            return super.getClosestFeature(pos);
+        VoronoiUnit<Dim, FeatureType> sector = getSectorOrNull(x, z);
+        if (sector == null || sector.getFeatureCount() < 2) {
+            return super.getClosestFeature(x, z);
         }
-        return sector.getClosestFeature(pos);
+        return sector.getClosestFeature(x, z);
+    }
 
+    @Override
+    protected FeatureType findClosestFeature(double x, double z, FeatureType closest) {
+        VoronoiUnit<Dim, FeatureType> sector = upperLeftSector;
+        if (sector != null) closest = sector.findClosestFeature(x, z, closest);
+        sector = upperRightSector;
+        if (sector != null) closest = sector.findClosestFeature(x, z, closest);
+        sector = lowerLeftSector;
+        if (sector != null) closest = sector.findClosestFeature(x, z, closest);
+        sector = lowerRightSector;
+        if (sector != null) closest = sector.findClosestFeature(x, z, closest);
+        return closest;
     }
 
     public VoronoiUnit<Dim, FeatureType> getUpperLeftSector() {
-        if (upperLeftSector == null) {
-            upperLeftSector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, -half, half));
+        VoronoiUnit<Dim, FeatureType> sector = upperLeftSector;
+        if (sector == null) {
+            synchronized (this) {
+                sector = upperLeftSector;
+                if (sector == null) {
+                    sector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, -half, half));
+                    upperLeftSector = sector;
+                }
+            }
         }
-        return upperLeftSector;
+        return sector;
     }
 
     public VoronoiUnit<Dim, FeatureType> getUpperRightSector() {
-        if (upperRightSector == null) {
-            upperRightSector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, half, half));
+        VoronoiUnit<Dim, FeatureType> sector = upperRightSector;
+        if (sector == null) {
+            synchronized (this) {
+                sector = upperRightSector;
+                if (sector == null) {
+                    sector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, half, half));
+                    upperRightSector = sector;
+                }
+            }
         }
-        return upperRightSector;
+        return sector;
     }
 
     public VoronoiUnit<Dim, FeatureType> getLowerLeftSector() {
-        if (lowerLeftSector == null) {
-            lowerLeftSector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, -half, -half));
+        VoronoiUnit<Dim, FeatureType> sector = lowerLeftSector;
+        if (sector == null) {
+            synchronized (this) {
+                sector = lowerLeftSector;
+                if (sector == null) {
+                    sector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, -half, -half));
+                    lowerLeftSector = sector;
+                }
+            }
         }
-        return lowerLeftSector;
+        return sector;
     }
 
     public VoronoiUnit<Dim, FeatureType> getLowerRightSector() {
-        if (lowerRightSector == null) {
-            lowerRightSector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, half, -half));
+        VoronoiUnit<Dim, FeatureType> sector = lowerRightSector;
+        if (sector == null) {
+            synchronized (this) {
+                sector = lowerRightSector;
+                if (sector == null) {
+                    sector = buildFragmentOrChunk(half -> dimensionAdapter.plus(center, half, -half));
+                    lowerRightSector = sector;
+                }
+            }
         }
-        return lowerRightSector;
+        return sector;
     }
 
     private VoronoiUnit<Dim, FeatureType> buildFragmentOrChunk(Function<Integer, Dim> newCenter) {
         int newHalf = size / 2;
         Dim center = newCenter.apply(newHalf / 2);
         if (size <= settings.getMinFragmentSize()) {
-            return new Chunk<>(this, center, newHalf, dimensionAdapter);
+            return new Chunk<>(this, center, newHalf, dimensionAdapter, settings.isConcurrent());
         } else {
             return new Fragment<>(this, center, newHalf, settings, dimensionAdapter);
         }
@@ -158,25 +364,46 @@ public class Fragment<Dim, FeatureType extends Feature<Dim>> extends VoronoiUnit
     public VoronoiUnit<Dim, FeatureType> getEmptyIfAbsent(Supplier<VoronoiUnit<Dim, FeatureType>> supplier, Function<Integer, Dim> newCenter) {
         int newSize = size / 2;
         Dim center = newCenter.apply(newSize / 2);
-        if (supplier.get() == null) {
+        VoronoiUnit<Dim, FeatureType> sector = supplier.get();
+        if (sector == null) {
             return VoronoiUnit.getEmpty(this, center, newSize, dimensionAdapter);
         }
-        return supplier.get();
+        return sector;
     }
 
     public VoronoiUnit<Dim, FeatureType> getUpperLeftSectorOrEmpty() {
-        return getEmptyIfAbsent(() -> upperLeftSector, half -> dimensionAdapter.plus(center, -half, half));
+        VoronoiUnit<Dim, FeatureType> sector = upperLeftSector;
+        return sector != null ? sector : getEmptySector(0, half -> dimensionAdapter.plus(center, -half, half));
     }
 
     public VoronoiUnit<Dim, FeatureType> getUpperRightSectorOrEmpty() {
-        return getEmptyIfAbsent(() -> upperRightSector, half -> dimensionAdapter.plus(center, half, half));
+        VoronoiUnit<Dim, FeatureType> sector = upperRightSector;
+        return sector != null ? sector : getEmptySector(1, half -> dimensionAdapter.plus(center, half, half));
     }
 
     public VoronoiUnit<Dim, FeatureType> getLowerLeftOrEmpty() {
-        return getEmptyIfAbsent(() -> lowerLeftSector, half -> dimensionAdapter.plus(center, -half, -half));
+        VoronoiUnit<Dim, FeatureType> sector = lowerLeftSector;
+        return sector != null ? sector : getEmptySector(2, half -> dimensionAdapter.plus(center, -half, -half));
     }
 
     public VoronoiUnit<Dim, FeatureType> getLowerRightOrEmpty() {
-        return getEmptyIfAbsent(() -> lowerRightSector, half -> dimensionAdapter.plus(center, half, -half));
+        VoronoiUnit<Dim, FeatureType> sector = lowerRightSector;
+        return sector != null ? sector : getEmptySector(3, half -> dimensionAdapter.plus(center, half, -half));
+    }
+
+    @SuppressWarnings("unchecked")
+    private VoronoiUnit<Dim, FeatureType> getEmptySector(int quadrant, Function<Integer, Dim> newCenter) {
+        // racing threads may create the same empty unit twice. This is harmless since empty units have no state.
+        VoronoiUnit<Dim, FeatureType>[] sectors = emptySectors;
+        if (sectors == null) {
+            sectors = new VoronoiUnit[QUADRANTS];
+            emptySectors = sectors;
+        }
+        VoronoiUnit<Dim, FeatureType> empty = sectors[quadrant];
+        if (empty == null) {
+            empty = getEmptyIfAbsent(() -> null, newCenter);
+            sectors[quadrant] = empty;
+        }
+        return empty;
     }
 }
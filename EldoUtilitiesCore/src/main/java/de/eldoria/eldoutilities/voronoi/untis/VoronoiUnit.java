@@ -1,22 +1,26 @@
 package de.eldoria.eldoutilities.voronoi.untis;
 
 import de.eldoria.eldoutilities.container.Pair;
-import de.eldoria.eldoutilities.utils.EMath;
 import de.eldoria.eldoutilities.voronoi.feature.Feature;
 import de.eldoria.eldoutilities.voronoi.feature.WeightedFeature;
+import de.eldoria.eldoutilities.voronoi.util.BoundedHeap;
 import de.eldoria.eldoutilities.voronoi.util.DimensionAdapter;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
+    private static final Border[] BORDERS = Border.values();
     protected final VoronoiUnit<Dim, FeatureType> parent;
     protected final Dim center;
     protected final int size;
     protected final DimensionAdapter<Dim> dimensionAdapter;
+    protected final double centerX;
+    protected final double centerZ;
     private final double northBorder;
     private final double eastBorder;
     private final double southBorder;
@@ -29,8 +33,8 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
         this.center = center;
         this.size = size;
         this.dimensionAdapter = dimensionAdapter;
-        double centerZ = dimensionAdapter.getZ(center);
-        double centerX = dimensionAdapter.getX(center);
+        this.centerZ = dimensionAdapter.getZ(center);
+        this.centerX = dimensionAdapter.getX(center);
         int borderOffset = size / 2;
         this.northBorder = centerZ + borderOffset;
         this.eastBorder = centerX + borderOffset;
@@ -54,12 +58,55 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
         return lowerRight;
     }
 
+    public DimensionAdapter<Dim> getDimensionAdapter() {
+        return dimensionAdapter;
+    }
+
     public abstract boolean isEmpty();
 
     public abstract int getFeatureCount();
 
     public abstract void addFeature(FeatureType feature);
 
+    /**
+     * Remove a feature from this unit.
+     * <p>
+     * Units which become empty are removed from the tree.
+     *
+     * @param feature feature to remove
+     * @return true if the feature was removed
+     * @since 1.8.0
+     */
+    public abstract boolean removeFeature(FeatureType feature);
+
+    /**
+     * Replace a feature with a feature at another position.
+     *
+     * @param from feature to remove
+     * @param to   feature to add
+     * @return true if the feature was moved. False if the feature to remove is not part of this unit. The new feature
+     * is not added in this case.
+     * @since 1.8.0
+     */
+    public boolean moveFeature(FeatureType from, FeatureType to) {
+        if (!removeFeature(from)) {
+            return false;
+        }
+        addFeature(to);
+        return true;
+    }
+
+    /**
+     * Add multiple features to this unit.
+     *
+     * @param features features to add
+     */
+    public void addFeatures(Collection<FeatureType> features) {
+        for (FeatureType feature : features) {
+            addFeature(feature);
+        }
+    }
+
     public abstract Collection<FeatureType> getFeatures();
 
     public static <Dim, FeatureType extends Feature<Dim>> VoronoiUnit<Dim, FeatureType>
@@ -81,6 +128,11 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
                 throw new UnsupportedOperationException("This is an empty unit. It should be only used to avoid overhead.");
             }
 
+            @Override
+            public boolean removeFeature(FeatureType feature) {
+                return false;
+            }
+
             @Override
             public Collection<FeatureType> getFeatures() {
                 return Collections.emptyList();
@@ -102,7 +154,12 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
             }
 
             @Override
-            public WeightedFeature<Dim, FeatureType> getClosestFeature(Dim pos) {
+            protected VoronoiUnit<Dim, FeatureType> findLayerUnit(double x, double z, int count) {
+                return null;
+            }
+
+            @Override
+            public WeightedFeature<Dim, FeatureType> getClosestFeature(double x, double z) {
                 throw new UnsupportedOperationException("This is an empty unit. It should be only used to avoid overhead.");
             }
         };
@@ -131,6 +188,18 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
 
     public abstract VoronoiUnit<Dim, FeatureType> retrieveLayerUnit(Dim point, int count);
 
+    /**
+     * Get the unit on a layer below this unit which contains the position.
+     * <p>
+     * This will not create any units.
+     *
+     * @param x     x value of position
+     * @param z     z value of position
+     * @param count count of the layer
+     * @return the unit or null if the unit is not present
+     */
+    protected abstract VoronoiUnit<Dim, FeatureType> findLayerUnit(double x, double z, int count);
+
     /**
      * Check if a point is inside this unit.
      *
@@ -138,19 +207,54 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
      * @return true if the position is inside this unit.
      */
     public boolean isInside(Dim pos) {
-        Dim upperLeft = getBoundaries().first;
-        Dim lowerRight = getBoundaries().second;
-        double posX = dimensionAdapter.getX(pos);
-        double posZ = dimensionAdapter.getZ(pos);
+        return isInside(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+    }
 
-        if (posX < dimensionAdapter.getX(upperLeft) || posX >= dimensionAdapter.getX(lowerRight)) {
-            return false;
-        }
+    /**
+     * Check if a point is inside this unit.
+     *
+     * @param x x value of position
+     * @param z z value of position
+     * @return true if the position is inside this unit.
+     * @since 1.8.0
+     */
+    public boolean isInside(double x, double z) {
+        return x >= westBorder && x < eastBorder && z >= southBorder && z < northBorder;
+    }
 
-        if (posZ < dimensionAdapter.getZ(lowerRight) || posZ >= dimensionAdapter.getZ(upperLeft)) {
-            return false;
+    /**
+     * Check if this unit overlaps with a area.
+     *
+     * @param minX min x value of area
+     * @param minZ min z value of area
+     * @param maxX max x value of area
+     * @param maxZ max z value of area
+     * @return true if the unit and the area overlap
+     */
+    public boolean intersects(double minX, double minZ, double maxX, double maxZ) {
+        return minX < eastBorder && maxX >= westBorder && minZ < northBorder && maxZ >= southBorder;
+    }
+
+    /**
+     * Collect all features of this unit which are located inside a area.
+     * <p>
+     * This will not create any units.
+     *
+     * @param minX   min x value of area
+     * @param minZ   min z value of area
+     * @param maxX   max x value of area
+     * @param maxZ   max z value of area
+     * @param target collection to add the features to
+     */
+    public void collectFeatures(double minX, double minZ, double maxX, double maxZ, Collection<FeatureType> target) {
+        if (!intersects(minX, minZ, maxX, maxZ)) return;
+        for (FeatureType feature : getFeatures()) {
+            double x = dimensionAdapter.getX(feature.getPos());
+            double z = dimensionAdapter.getZ(feature.getPos());
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                target.add(feature);
+            }
         }
-        return true;
     }
 
     /**
@@ -165,27 +269,40 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
     }
 
     public Dim getBorder(Border border) {
-        double centerZ = dimensionAdapter.getZ(center);
-        double centerX = dimensionAdapter.getX(center);
+        return dimensionAdapter.construct(getBorderX(border), getBorderZ(border));
+    }
 
-        double centerOffset = size / 2d;
+    private double getBorderX(Border border) {
         switch (border) {
             case NORTH:
-                return dimensionAdapter.construct(centerX, northBorder);
+            case SOUTH:
+                return centerX;
             case NORTH_EAST:
-                return dimensionAdapter.construct(eastBorder, northBorder);
             case EAST:
-                return dimensionAdapter.construct(eastBorder, centerZ);
             case SOUTH_EAST:
-                return dimensionAdapter.construct(eastBorder, southBorder);
-            case SOUTH:
-                return dimensionAdapter.construct(centerX, southBorder);
+                return eastBorder;
             case SOUTH_WEST:
-                return dimensionAdapter.construct(westBorder, southBorder);
             case WEST:
-                return dimensionAdapter.construct(westBorder, centerZ);
             case NORTH_WEST:
-                return dimensionAdapter.construct(westBorder, northBorder);
+                return westBorder;
+            default:
+                throw new IllegalStateException("Unexpected value: " + border);
+        }
+    }
+
+    private double getBorderZ(Border border) {
+        switch (border) {
+            case EAST:
+            case WEST:
+                return centerZ;
+            case NORTH:
+            case NORTH_EAST:
+            case NORTH_WEST:
+                return northBorder;
+            case SOUTH_EAST:
+            case SOUTH:
+            case SOUTH_WEST:
+                return southBorder;
             default:
                 throw new IllegalStateException("Unexpected value: " + border);
         }
@@ -193,7 +310,7 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
 
     public Collection<Border> getBordersCloserThan(Dim pos, double threshold) {
         List<Border> borders = new ArrayList<>();
-        for (Border border : Border.values()) {
+        for (Border border : BORDERS) {
             if (getBorderDistance(border, pos) < threshold) {
                 borders.add(border);
             }
@@ -203,27 +320,31 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
 
     public double getNearestBorderDistance(Dim pos) {
         double min = Double.MAX_VALUE;
-        for (Border value : Border.values()) {
+        for (Border value : BORDERS) {
             min = Math.min(getBorderDistance(value, pos), min);
         }
         return min;
     }
 
     public double getBorderDistance(Border border, Dim pos) {
+        return getBorderDistance(border, dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+    }
+
+    private double getBorderDistance(Border border, double x, double z) {
         switch (border) {
             case NORTH_EAST:
             case NORTH_WEST:
             case SOUTH_WEST:
             case SOUTH_EAST:
-                return dimensionAdapter.distance(getBorder(border), pos);
+                return dimensionAdapter.distance(getBorderX(border), getBorderZ(border), x, z);
             case NORTH:
-                return EMath.diff(northBorder, dimensionAdapter.getZ(pos));
+                return Math.abs(northBorder - z);
             case EAST:
-                return EMath.diff(eastBorder, dimensionAdapter.getX(pos));
+                return Math.abs(eastBorder - x);
             case SOUTH:
-                return EMath.diff(southBorder, dimensionAdapter.getZ(pos));
+                return Math.abs(southBorder - z);
             case WEST:
-                return EMath.diff(westBorder, dimensionAdapter.getX(pos));
+                return Math.abs(westBorder - x);
             default:
                 throw new IllegalStateException("Unexpected value: " + border);
         }
@@ -259,41 +380,195 @@ public abstract class VoronoiUnit<Dim, FeatureType extends Feature<Dim>> {
         return parent.retrieveLayerUnit(point, layer + 1);
     }
 
+    /**
+     * Get the neighbour unit on the same layer without creating dimension objects.
+     *
+     * @param border border to the neighbour
+     * @return the neighbour or null if it is not present
+     */
+    private VoronoiUnit<Dim, FeatureType> findNeighbour(Border border) {
+        double x = getBorderX(border);
+        double z = getBorderZ(border);
+        switch (border) {
+            case NORTH:
+                return findPositionOnLayer(x, z + 1);
+            case NORTH_EAST:
+                return findPositionOnLayer(x + 1, z + 1);
+            case EAST:
+                return findPositionOnLayer(x + 1, z);
+            case SOUTH_EAST:
+                return findPositionOnLayer(x + 1, z - 1);
+            case SOUTH:
+                return findPositionOnLayer(x, z - 1);
+            case SOUTH_WEST:
+                return findPositionOnLayer(x - 1, z - 1);
+            case WEST:
+                return findPositionOnLayer(x - 1, z);
+            case NORTH_WEST:
+                return findPositionOnLayer(x - 1, z + 1);
+            default:
+                throw new IllegalStateException("Unexpected value: " + border);
+        }
+    }
+
+    private VoronoiUnit<Dim, FeatureType> findPositionOnLayer(double x, double z) {
+        if (isInside(x, z)) {
+            return findLayerUnit(x, z, 0);
+        }
+        if (parent == null) return null;
+        return parent.findLayerUnit(x, z, 1);
+    }
+
     public WeightedFeature<Dim, FeatureType> getClosestFeature(Dim pos) {
+        return getClosestFeature(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos));
+    }
+
+    /**
+     * Get the closest feature to a position.
+     * <p>
+     * The only object allocated by this method is the returned result.
+     *
+     * @param x x value of position
+     * @param z z value of position
+     * @return the closest feature or null if the unit and its neighbours are empty.
+     * @since 1.8.0
+     */
+    public WeightedFeature<Dim, FeatureType> getClosestFeature(double x, double z) {
         // find the closes feature
-        WeightedFeature<Dim, FeatureType> closestFeature = findClosestFeatureHere(pos);
+        FeatureType closest = findClosestFeature(x, z, null);
 
-        if (closestFeature == null) {
+        if (closest == null) {
             // This wont happen until the whole thing is empty.
             return null;
         }
 
-        Collection<Border> bordersCloserThan = getBordersCloserThan(closestFeature.getFeature().getPos(), closestFeature.getDistance());
+        double featureX = dimensionAdapter.getX(closest.getPos());
+        double featureZ = dimensionAdapter.getZ(closest.getPos());
+        double threshold = Math.sqrt(distanceSquared(closest, x, z));
 
-        List<FeatureType> neighborFeatures = new ArrayList<>();
-        for (Border border : bordersCloserThan) {
-            VoronoiUnit<Dim, FeatureType> neightbour = getNeightbour(border);
-            neighborFeatures.addAll(neightbour.getFeatures());
+        for (Border border : BORDERS) {
+            if (getBorderDistance(border, featureX, featureZ) >= threshold) continue;
+            VoronoiUnit<Dim, FeatureType> neighbour = findNeighbour(border);
+            if (neighbour != null) {
+                closest = neighbour.findClosestFeature(x, z, closest);
+            }
         }
 
-        if (neighborFeatures.isEmpty()) {
-            return closestFeature;
-        }
+        return WeightedFeature.of(closest, distanceSquared(closest, x, z));
+    }
 
-        List<WeightedFeature<Dim, FeatureType>> weightedFeatures = weightedFeatures(pos, neighborFeatures);
+    /**
+     * Find the feature of this unit which is closer to the position than the current closest feature.
+     *
+     * @param x       x value of position
+     * @param z       z value of position
+     * @param closest the current closest feature or null
+     * @return the closest feature of this unit if it is closer than the current closest feature. Otherwise the current
+     * closest feature.
+     */
+    protected FeatureType findClosestFeature(double x, double z, FeatureType closest) {
+        double closestDistance = closest == null ? Double.MAX_VALUE : distanceSquared(closest, x, z);
+        for (FeatureType feature : getFeatures()) {
+            double distance = distanceSquared(feature, x, z);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closest = feature;
+            }
+        }
+        return closest;
+    }
 
-        WeightedFeature<Dim, FeatureType> otherClosest = weightedFeatures.get(0);
+    /**
+     * Get the k closest features to a position.
+     * <p>
+     * Units which can not contain a closer feature than the already found ones are skipped.
+     *
+     * @param pos position
+     * @param k   max amount of features
+     * @return list of up to k features sorted by distance. The closest feature is the first one.
+     * @since 1.8.0
+     */
+    public List<WeightedFeature<Dim, FeatureType>> getKClosestFeatures(Dim pos, int k) {
+        if (k < 1) return Collections.emptyList();
+        BoundedHeap<FeatureType> heap = new BoundedHeap<>(k);
+        collectClosest(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos), heap);
+
+        // the heap returns the furthest feature first.
+        List<WeightedFeature<Dim, FeatureType>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            double distance = heap.peekKey();
+            result.add(WeightedFeature.of(heap.poll(), distance));
+        }
+        Collections.reverse(result);
+        return result;
+    }
 
-        return closestFeature.getDistanceSquared() > otherClosest.getDistanceSquared() ? otherClosest : closestFeature;
+    /**
+     * Get all features within a radius around a position.
+     * <p>
+     * Units which are completely out of range are skipped.
+     *
+     * @param pos    position
+     * @param radius radius around the position
+     * @return list of features sorted by distance. The closest feature is the first one.
+     * @since 1.8.0
+     */
+    public List<WeightedFeature<Dim, FeatureType>> getFeaturesWithin(Dim pos, double radius) {
+        List<WeightedFeature<Dim, FeatureType>> result = new ArrayList<>();
+        collectWithin(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos), radius * radius, result);
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
 
+    /**
+     * Offer all features of this unit to the heap, if the unit may contain a feature closer than the bound of the heap.
+     *
+     * @param x    x value of position
+     * @param z    z value of position
+     * @param heap heap of the closest features
+     */
+    protected void collectClosest(double x, double z, BoundedHeap<FeatureType> heap) {
+        if (boundsDistanceSquared(x, z) >= heap.bound()) return;
+        for (FeatureType feature : getFeatures()) {
+            heap.offer(distanceSquared(feature, x, z), feature);
+        }
     }
 
-    private WeightedFeature<Dim, FeatureType> findClosestFeatureHere(Dim pos) {
-        List<WeightedFeature<Dim, FeatureType>> weightedFeatures = weightFeatures(pos);
-        if (weightedFeatures.isEmpty()) {
-            return null;
+    /**
+     * Add all features of this unit which are within the radius.
+     *
+     * @param x             x value of position
+     * @param z             z value of position
+     * @param radiusSquared squared radius
+     * @param result        list to add the features to
+     */
+    protected void collectWithin(double x, double z, double radiusSquared, List<WeightedFeature<Dim, FeatureType>> result) {
+        if (boundsDistanceSquared(x, z) > radiusSquared) return;
+        for (FeatureType feature : getFeatures()) {
+            double distance = distanceSquared(feature, x, z);
+            if (distance <= radiusSquared) {
+                result.add(WeightedFeature.of(feature, distance));
+            }
         }
-        return weightedFeatures.get(0);
+    }
+
+    /**
+     * Get the squared distance of a position to the boundaries of this unit.
+     *
+     * @param x x value of position
+     * @param z z value of position
+     * @return squared distance or 0 if the position is inside the unit.
+     * @since 1.8.0
+     */
+    public double boundsDistanceSquared(double x, double z) {
+        double dx = Math.max(0, Math.max(westBorder - x, x - eastBorder));
+        double dz = Math.max(0, Math.max(southBorder - z, z - northBorder));
+        return dx * dx + dz * dz;
+    }
+
+    protected double distanceSquared(FeatureType feature, double x, double z) {
+        Dim pos = feature.getPos();
+        return dimensionAdapter.distanceSquared(dimensionAdapter.getX(pos), dimensionAdapter.getZ(pos), x, z);
     }
 
     public List<WeightedFeature<Dim, FeatureType>> weightFeatures(Dim pos) {
@@ -0,0 +1,130 @@
+package de.eldoria.eldoutilities.voronoi.util;
+
+/**
+ * A max heap with a fixed capacity which keeps the elements with the lowest keys.
+ * <p>
+ * Keys are stored in a primitive array. Offering a element to a full heap replaces the element with the highest key if
+ * the new key is lower.
+ *
+ * @param <T> type of elements
+ * @since 1.8.0
+ */
+public final class BoundedHeap<T> {
+    private final double[] keys;
+    private final Object[] values;
+    private int size = 0;
+
+    /**
+     * Create a new heap.
+     *
+     * @param capacity max amount of elements in the heap
+     */
+    public BoundedHeap(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity has to be at least 1.");
+        }
+        keys = new double[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Offer a element to the heap.
+     *
+     * @param key   key of the element
+     * @param value element
+     * @return true if the element was added
+     */
+    public boolean offer(double key, T value) {
+        if (size < keys.length) {
+            int index = size++;
+            keys[index] = key;
+            values[index] = value;
+            siftUp(index);
+            return true;
+        }
+        if (key >= keys[0]) return false;
+        keys[0] = key;
+        values[0] = value;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Get the highest key which would still be accepted by the heap.
+     *
+     * @return highest key in the heap or {@link Double#POSITIVE_INFINITY} if the heap is not full yet.
+     */
+    public double bound() {
+        return size < keys.length ? Double.POSITIVE_INFINITY : keys[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes the element with the highest key.
+     *
+     * @return the removed element
+     * @throws IllegalStateException if the heap is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty.");
+        }
+        T value = (T) values[0];
+        size--;
+        keys[0] = keys[size];
+        values[0] = values[size];
+        values[size] = null;
+        if (size > 0) siftDown(0);
+        return value;
+    }
+
+    /**
+     * Get the highest key.
+     *
+     * @return highest key
+     * @throws IllegalStateException if the heap is empty
+     */
+    public double peekKey() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty.");
+        }
+        return keys[0];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] >= keys[index]) return;
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= size) return;
+            int largest = left + 1 < size && keys[left + 1] > keys[left] ? left + 1 : left;
+            if (keys[index] >= keys[largest]) return;
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        Object value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+}
@@ -84,4 +84,40 @@ public interface DimensionAdapter<Dim> {
     Dim construct(double x, double z);
 
     Dim multiply(Dim pos, double multiplier);
+
+    /**
+     * Get the distance between two points given by their coordinates.
+     * <p>
+     * This is used by the voronoi units to avoid the creation of dimension objects in hot paths. Implementations with
+     * a custom {@link #distance(Object, Object)} should override this method accordingly.
+     *
+     * @param x1 x value of the first point
+     * @param z1 z value of the first point
+     * @param x2 x value of the second point
+     * @param z2 z value of the second point
+     * @return distance
+     * @since 1.8.0
+     */
+    default double distance(double x1, double z1, double x2, double z2) {
+        return Math.sqrt(distanceSquared(x1, z1, x2, z2));
+    }
+
+    /**
+     * Get the squared distance between two points given by their coordinates.
+     * <p>
+     * This is used by the voronoi units to avoid the creation of dimension objects in hot paths. Implementations with
+     * a custom {@link #distanceSquared(Object, Object)} should override this method accordingly.
+     *
+     * @param x1 x value of the first point
+     * @param z1 z value of the first point
+     * @param x2 x value of the second point
+     * @param z2 z value of the second point
+     * @return distance squared
+     * @since 1.8.0
+     */
+    default double distanceSquared(double x1, double z1, double x2, double z2) {
+        double dx = x1 - x2;
+        double dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
 }
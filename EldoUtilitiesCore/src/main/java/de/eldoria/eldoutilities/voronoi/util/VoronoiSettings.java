@@ -4,11 +4,26 @@ public class VoronoiSettings<Dim> {
     private int radius;
     private Dim center;
     private int minFragmentSize;
+    private boolean concurrent;
 
     public VoronoiSettings(int radius, Dim center, int minFragmentSize) {
+        this(radius, center, minFragmentSize, false);
+    }
+
+    /**
+     * Creates new voronoi settings.
+     *
+     * @param radius          radius of the voronoi
+     * @param center          center of the voronoi
+     * @param minFragmentSize size below which fragments are replaced by chunks
+     * @param concurrent      true if the voronoi should support reads while features are added
+     * @since 1.8.0
+     */
+    public VoronoiSettings(int radius, Dim center, int minFragmentSize, boolean concurrent) {
         this.radius = radius;
         this.center = center;
         this.minFragmentSize = minFragmentSize;
+        this.concurrent = concurrent;
     }
 
     public int getRadius() {
@@ -22,4 +37,14 @@ public class VoronoiSettings<Dim> {
     public int getMinFragmentSize() {
         return minFragmentSize;
     }
+
+    /**
+     * Check if the voronoi supports reads while features are added.
+     *
+     * @return true if the voronoi is concurrent
+     * @since 1.8.0
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
 }
@@ -0,0 +1,37 @@
+package de.eldoria.eldoutilities.localization;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+
+class LocaleBundleTest {
+
+    @Test
+    void fallbackChainTest() throws IOException {
+        LocaleBundle fallback = LocaleBundle.of("en_US", null,
+                Collections.singletonList(bundle("greet=Hello\nbye=Bye\nonly=Fallback")));
+        LocaleBundle regional = LocaleBundle.of("de_AT", fallback,
+                Arrays.asList(bundle("greet=Hallo\nbye=Tschuess\nonly="), bundle("greet=Servus\nbye=\nempty=")));
+
+        Assertions.assertEquals("de_AT", regional.getLocale());
+        Assertions.assertEquals("Servus", regional.getTemplate("greet").render());
+        // empty values do not override the parent
+        Assertions.assertEquals("Tschuess", regional.getTemplate("bye").render());
+        Assertions.assertEquals("Fallback", regional.getTemplate("only").render());
+        Assertions.assertEquals("", regional.getTemplate("empty").render());
+        Assertions.assertNull(regional.getTemplate("missing"));
+        // the parent is not changed
+        Assertions.assertEquals("Hello", fallback.getTemplate("greet").render());
+        Assertions.assertSame(regional.getTemplate("greet"), regional.getTemplate("greet"));
+    }
+
+    private static ResourceBundle bundle(String content) throws IOException {
+        return new PropertyResourceBundle(new StringReader(content));
+    }
+}
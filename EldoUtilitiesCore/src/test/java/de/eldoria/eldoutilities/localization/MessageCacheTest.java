@@ -0,0 +1,68 @@
+package de.eldoria.eldoutilities.localization;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MessageCacheTest {
+
+    @Test
+    void hitTest() {
+        MessageCache cache = new MessageCache(10);
+        MessageTemplate template = MessageTemplate.compile("Starting in %SECONDS%");
+        AtomicInteger renders = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Replacement[] replacements = {Replacement.create("SECONDS", 5)};
+            Assertions.assertEquals("Starting in 5§r", cache.get("en_US", "countdown", replacements, () -> {
+                renders.incrementAndGet();
+                return template.render(replacements);
+            }));
+        }
+        Replacement[] other = {Replacement.create("SECONDS", 4)};
+        Assertions.assertEquals("Starting in 4§r", cache.get("en_US", "countdown", other, () -> template.render(other)));
+        Assertions.assertEquals("de_DE", cache.get("de_DE", "countdown", other, () -> "de_DE"));
+
+        Assertions.assertEquals(1, renders.get());
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(3, cache.getMisses());
+        Assertions.assertEquals(3, cache.size());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictionTest() {
+        MessageCache cache = new MessageCache(2);
+        Replacement[] none = new Replacement[0];
+        cache.get(null, "a", none, () -> "a");
+        cache.get(null, "b", none, () -> "b");
+        // a is now the most recently used message
+        cache.get(null, "a", none, () -> "a");
+        cache.get(null, "c", none, () -> "c");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals("a", cache.get(null, "a", none, () -> "miss"));
+        Assertions.assertEquals("miss", cache.get(null, "b", none, () -> "miss"));
+    }
+
+    @Test
+    void clearTest() {
+        MessageCache cache = new MessageCache(10);
+        Replacement[] none = new Replacement[0];
+        // a clear during the rendering discards the rendered message
+        Assertions.assertEquals("stale", cache.get(null, "a", none, () -> {
+            cache.clear();
+            return "stale";
+        }));
+        Assertions.assertEquals(0, cache.size());
+
+        long generation = cache.getGeneration();
+        cache.clear();
+        Assertions.assertEquals("stale", cache.get(generation, null, "a", none, () -> "stale"));
+        Assertions.assertEquals("fresh", cache.get(null, "a", none, () -> "fresh"));
+        Assertions.assertEquals("fresh", cache.get(null, "a", none, () -> "miss"));
+    }
+}
@@ -0,0 +1,33 @@
+package de.eldoria.eldoutilities.localization;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MessageTemplateTest {
+
+    @Test
+    void renderTest() {
+        MessageTemplate template = MessageTemplate.compile("%PLAYER% joined %world%. %PLAYER%!");
+        Assertions.assertEquals("name§r joined world§r. name§r!",
+                template.render(Replacement.create("player", "name"), Replacement.create("WORLD", "world")));
+        // missing replacements keep the placeholder
+        Assertions.assertEquals("name§r joined %world%. name§r!", template.render(Replacement.create("PLAYER", "name")));
+    }
+
+    @Test
+    void literalTest() {
+        MessageTemplate template = MessageTemplate.compile("50% off and 20 % more %% %VALUE%");
+        Assertions.assertEquals("50% off and 20 % more %% $1\\§r", template.render(Replacement.create("VALUE", "$1\\")));
+        Assertions.assertFalse(MessageTemplate.compile("100%").hasPlaceholders());
+        Assertions.assertEquals("100%", MessageTemplate.compile("100%").render(Replacement.create("VALUE", "1")));
+        Assertions.assertEquals("Progress 50%/100§r",
+                MessageTemplate.compile("Progress 50%/%MAX%").render(Replacement.create("MAX", 100)));
+    }
+
+    @Test
+    void replacementTest() {
+        Replacement replacement = Replacement.create("VALUE", "$0.5");
+        Assertions.assertEquals("$0.5§r and $0.5§r", replacement.invoke("%value% and %VALUE%"));
+        Assertions.assertEquals("no placeholder", replacement.invoke("no placeholder"));
+    }
+}
@@ -0,0 +1,44 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+
+class LaneQueueTest {
+
+    @Test
+    void weightTest() {
+        LaneQueue<Integer> queue = new LaneQueue<>(i -> i, ArrayDeque::new, 3, 1);
+        for (int i = 0; i < 100; i++) {
+            queue.add(0);
+            queue.add(1);
+        }
+
+        int[] polled = new int[2];
+        for (int i = 0; i < 80; i++) {
+            Integer peek = queue.peek();
+            Integer poll = queue.poll();
+            Assertions.assertEquals(peek, poll);
+            polled[poll]++;
+        }
+        Assertions.assertEquals(60, polled[0]);
+        Assertions.assertEquals(20, polled[1]);
+        Assertions.assertEquals(60, queue.lanePolled(0));
+        Assertions.assertEquals(80, queue.laneSize(1));
+    }
+
+    @Test
+    void emptyLaneTest() {
+        LaneQueue<Integer> queue = new LaneQueue<>(i -> i, ArrayDeque::new, 8, 1);
+        for (int i = 0; i < 10; i++) {
+            queue.add(1);
+        }
+        // a empty lane does not block other lanes
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(1, (int) queue.poll());
+        }
+        Assertions.assertNull(queue.poll());
+        Assertions.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MpscQueueTest {
+
+    @Test
+    void orderTest() {
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        Assertions.assertNull(queue.poll());
+        Assertions.assertTrue(queue.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+        Assertions.assertEquals(100, queue.size());
+        Assertions.assertEquals(0, (int) queue.peek());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i, (int) queue.poll());
+        }
+        Assertions.assertTrue(queue.isEmpty());
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    @Test
+    // the consumer spins until every element arrived. A lost element would hang the build otherwise.
+    @Timeout(10)
+    void concurrentTest() throws InterruptedException {
+        MpscQueue<Integer> queue = new MpscQueue<>();
+        int producers = 4;
+        int perProducer = 100000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.offer(offset + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // the elements of each producer have to arrive in order
+        int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        int received = 0;
+        while (received < producers * perProducer) {
+            Integer value = queue.poll();
+            if (value == null) continue;
+            int producer = value / perProducer;
+            Assertions.assertTrue(value % perProducer > last[producer]);
+            last[producer] = value % perProducer;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package de.eldoria.eldoutilities.scheduling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+class TimingWheelTest {
+    private int tick;
+    private TimingWheel<TestEntry> wheel;
+
+    @BeforeEach
+    void build() {
+        tick = 0;
+        wheel = new TimingWheel<>(16, () -> tick);
+    }
+
+    @Test
+    void releaseTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        List<TestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // delays larger than the wheel need multiple turns.
+            TestEntry entry = new TestEntry(current.nextInt(1, 100));
+            entries.add(entry);
+            wheel.add(entry);
+        }
+        Assertions.assertEquals(1000, wheel.size());
+        Assertions.assertNull(wheel.peek());
+
+        int released = 0;
+        while (tick < 100) {
+            tick++;
+            TestEntry entry;
+            while ((entry = wheel.poll()) != null) {
+                Assertions.assertEquals(tick, entry.getTick());
+                released++;
+            }
+        }
+        Assertions.assertEquals(1000, released);
+        Assertions.assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void skippedTicksTest() {
+        wheel.add(new TestEntry(5));
+        wheel.add(new TestEntry(40));
+        tick = 50;
+        Assertions.assertNotNull(wheel.poll());
+        Assertions.assertNotNull(wheel.poll());
+        Assertions.assertNull(wheel.poll());
+    }
+
+    @Test
+    void removeTest() {
+        TestEntry first = new TestEntry(3);
+        TestEntry second = new TestEntry(3);
+        wheel.add(first);
+        wheel.add(second);
+
+        Assertions.assertTrue(wheel.remove(first));
+        Assertions.assertFalse(wheel.remove(first));
+        Assertions.assertFalse(wheel.contains(first));
+        Assertions.assertEquals(1, wheel.size());
+
+        tick = 3;
+        Assertions.assertSame(second, wheel.poll());
+        Assertions.assertNull(wheel.poll());
+
+        // entries can be scheduled again after they were removed.
+        wheel.add(first);
+        Assertions.assertSame(first, wheel.poll());
+    }
+
+    private static class TestEntry extends TimingWheel.Entry {
+        private TestEntry(int tick) {
+            super(tick);
+        }
+    }
+}
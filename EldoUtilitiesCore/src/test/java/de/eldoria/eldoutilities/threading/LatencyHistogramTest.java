@@ -0,0 +1,27 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.percentile(0.5));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assertions.assertEquals(1000, histogram.count());
+
+        // percentiles are reported as upper bound of their bucket
+        long p50 = histogram.percentile(0.5);
+        Assertions.assertTrue(p50 >= 500_000 && p50 < 1_000_000, "p50 was " + p50);
+        long p99 = histogram.percentile(0.99);
+        Assertions.assertTrue(p99 >= 990_000 && p99 < 2_000_000, "p99 was " + p99);
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.count());
+    }
+}
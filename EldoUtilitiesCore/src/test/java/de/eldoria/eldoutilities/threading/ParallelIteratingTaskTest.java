@@ -0,0 +1,82 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class ParallelIteratingTaskTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void applyTest() throws InterruptedException {
+        List<Integer> elements = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Integer> applied = new ArrayList<>();
+        AtomicReference<TaskStatistics> statistics = new AtomicReference<>();
+        ParallelIteratingTask<Integer, Integer> task = new ParallelIteratingTask<>(elements.spliterator(),
+                element -> element % 2 == 0 ? element : null,
+                result -> result % 4 == 0 && applied.add(result),
+                statistics::set,
+                Assertions::fail,
+                executor);
+        // the computation has to wait for the main thread
+        task.setMaxPendingResults(16);
+
+        tickUntil(task, () -> statistics.get() != null);
+
+        Assertions.assertEquals(250, statistics.get().getProcessedElements());
+        Assertions.assertEquals(250, applied.size());
+        Assertions.assertTrue(applied.stream().allMatch(result -> result % 4 == 0));
+    }
+
+    @Test
+    void failureTest() throws InterruptedException {
+        List<Integer> elements = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ParallelIteratingTask<Integer, Integer> task = new ParallelIteratingTask<>(elements.spliterator(),
+                element -> {
+                    if (element == 500) throw new IllegalStateException("failed");
+                    return element;
+                },
+                result -> true,
+                statistics -> Assertions.fail("Statistics of a failed task were reported."),
+                failure::set,
+                executor);
+        task.setMaxPendingResults(16);
+
+        tickUntil(task, () -> failure.get() != null);
+
+        Assertions.assertTrue(failure.get() instanceof IllegalStateException);
+    }
+
+    private static void tickUntil(ParallelIteratingTask<?, ?> task, BooleanSupplier done)
+            throws InterruptedException {
+        // the task is not scheduled. Ticks are driven directly.
+        boolean running = true;
+        for (int tick = 0; tick < 10_000 && running; tick++) {
+            running = task.tick();
+            Thread.sleep(1);
+        }
+        Assertions.assertFalse(running, "Task did not finish.");
+        Assertions.assertTrue(done.getAsBoolean());
+    }
+}
@@ -0,0 +1,62 @@
+package de.eldoria.eldoutilities.threading;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class TickBudgetTest {
+    private long now = 0;
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void adaptTest() {
+        TickBudget budget = new TickBudget(1, 20, TimeUnit.MILLISECONDS, () -> now);
+        budget.startTick();
+        // a new budget starts at its maximum
+        Assertions.assertEquals(budget.getMaxBudgetNanos(), budget.getBudgetNanos());
+
+        // a tick which took longer than 50 ms shrinks the budget by the overshoot
+        advance(60);
+        budget.startTick();
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), budget.getBudgetNanos());
+        advance(80);
+        budget.startTick();
+        Assertions.assertEquals(budget.getMinBudgetNanos(), budget.getBudgetNanos());
+
+        // ticks without overshoot let the budget grow back
+        for (int i = 0; i < 100; i++) {
+            advance(50);
+            budget.startTick();
+        }
+        Assertions.assertEquals(budget.getMaxBudgetNanos(), budget.getBudgetNanos());
+    }
+
+    @Test
+    void hasTimeTest() {
+        TickBudget budget = new TickBudget(5, 5, TimeUnit.MILLISECONDS, () -> now);
+        budget.startTick();
+        advance(4);
+        Assertions.assertTrue(budget.hasTime());
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(4), budget.elapsedNanos());
+        advance(1);
+        Assertions.assertFalse(budget.hasTime());
+    }
+
+    @Test
+    void resetTest() {
+        TickBudget budget = new TickBudget(1, 25, TimeUnit.MILLISECONDS, () -> now);
+        budget.startTick();
+        advance(60);
+        budget.startTick();
+        long shrunk = budget.getBudgetNanos();
+        budget.reset();
+        // a paused task does not count as overshoot.
+        advance(1000);
+        budget.startTick();
+        Assertions.assertEquals(shrunk, budget.getBudgetNanos());
+    }
+}
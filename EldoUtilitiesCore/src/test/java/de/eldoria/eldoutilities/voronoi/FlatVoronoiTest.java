@@ -0,0 +1,100 @@
+package de.eldoria.eldoutilities.voronoi;
+
+import de.eldoria.eldoutilities.utils.Stopwatch;
+import de.eldoria.eldoutilities.voronoi.impl.VectorDimensionAdapter;
+import de.eldoria.eldoutilities.voronoi.impl.VectorFeature;
+import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class FlatVoronoiTest {
+    private VectorDimensionAdapter dimensionAdapter;
+    private FlatVoronoi<Vector, VectorFeature> voronoi;
+
+    @BeforeEach
+    void build() {
+        dimensionAdapter = new VectorDimensionAdapter();
+        VoronoiSettings<Vector> settings = new VoronoiSettings<>(30000000, new Vector(), 1024);
+        voronoi = FlatVoronoi.create(settings, dimensionAdapter);
+    }
+
+    @Test
+    void emptyTest() {
+        Assertions.assertTrue(voronoi.isEmpty());
+        Assertions.assertNull(voronoi.getClosestFeature(new Vector()));
+        Assertions.assertEquals(-1, voronoi.getClosestFeatureIndex(0, 0));
+    }
+
+    @Test
+    void locationTest() {
+        List<VectorFeature> features = randomFeatures(1000, 1000000);
+        features.forEach(voronoi::addFeature);
+
+        Assertions.assertEquals(features.size(), voronoi.getFeatureCount());
+
+        for (VectorFeature feature : features) {
+            Assertions.assertEquals(feature, voronoi.getClosestFeature(feature.getPos()).getFeature());
+        }
+    }
+
+    @Test
+    void bruteForceTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        List<VectorFeature> features = randomFeatures(5000, range);
+        features.forEach(voronoi::addFeature);
+
+        for (int i = 0; i < 1000; i++) {
+            Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+            double expected = Double.MAX_VALUE;
+            for (VectorFeature feature : features) {
+                expected = Math.min(expected, dimensionAdapter.distanceSquared(feature.getPos(), search));
+            }
+            Assertions.assertEquals(expected, voronoi.getClosestFeature(search).getDistanceSquared());
+        }
+    }
+
+    @Test
+    void benchmark() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int searchCount = 100000;
+        int range = 1000000;
+        List<VectorFeature> features = randomFeatures(100000, range);
+
+        Stopwatch stopwatch = new Stopwatch();
+
+        stopwatch.start();
+        features.forEach(voronoi::addFeature);
+        stopwatch.printAndRestart("Insert");
+
+        double[] searches = new double[searchCount * 2];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = current.nextInt(-range, range);
+        }
+
+        stopwatch.start();
+        for (int i = 0; i < searchCount; i++) {
+            voronoi.getClosestFeatureIndex(searches[i * 2], searches[i * 2 + 1]);
+        }
+        stopwatch.printAndRestart("Cold Searches");
+        for (int i = 0; i < searchCount; i++) {
+            voronoi.getClosestFeatureIndex(searches[i * 2], searches[i * 2 + 1]);
+        }
+        stopwatch.printAndRestart("Hot Searches");
+    }
+
+    private List<VectorFeature> randomFeatures(int count, int range) {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        return IntStream.range(0, count)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+    }
+}
@@ -14,9 +14,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -162,6 +165,246 @@ class VoronoiTest {
         // 54
     }
 
+    @Test
+    void buildTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int features = 20000;
+
+        List<VectorFeature> collect = IntStream.range(0, features)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(
+                                current.nextInt(-1000000, 1000000),
+                                0,
+                                current.nextInt(-1000000, 1000000))))
+                .collect(Collectors.toList());
+
+        Voronoi<Vector, VectorFeature> reference = Voronoi.create(settings, dimensionAdapter);
+
+        Stopwatch stopwatch = new Stopwatch();
+
+        stopwatch.start();
+        collect.forEach(reference::addFeature);
+        stopwatch.printAndRestart("Insert");
+
+        voronoi.build(collect);
+        stopwatch.printAndRestart("Build");
+
+        Assertions.assertEquals(features, voronoi.getFeatureCount());
+
+        for (VectorFeature feature : collect) {
+            Assertions.assertEquals(reference.getChunk(feature.getPos()).getFeatureCount(),
+                    voronoi.getChunk(feature.getPos()).getFeatureCount());
+        }
+    }
+
+    @Test
+    void batchQueryTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        int gridSize = 200;
+
+        List<VectorFeature> featureList = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(featureList);
+
+        VectorFeature[] grid = new VectorFeature[gridSize * gridSize];
+        Stopwatch stopwatch = new Stopwatch();
+        stopwatch.start();
+        voronoi.getClosestFeatures(new Vector(-100, 0, -100), gridSize, gridSize, grid);
+        stopwatch.printAndRestart("Grid Searches");
+
+        List<Vector> points = new ArrayList<>();
+        for (int x = 0; x < gridSize; x++) {
+            for (int z = 0; z < gridSize; z++) {
+                points.add(new Vector(x - 100, 0, z - 100));
+            }
+        }
+        VectorFeature[] list = new VectorFeature[points.size()];
+        voronoi.getClosestFeatures(points, list);
+        stopwatch.printAndRestart("List Searches");
+
+        for (int i = 0; i < points.size(); i++) {
+            Vector point = points.get(i);
+            double expected = Double.MAX_VALUE;
+            for (VectorFeature feature : featureList) {
+                expected = Math.min(expected, dimensionAdapter.distanceSquared(feature.getPos(), point));
+            }
+            Assertions.assertEquals(expected, dimensionAdapter.distanceSquared(grid[i].getPos(), point));
+            Assertions.assertSame(grid[i], list[i]);
+        }
+    }
+
+    @Test
+    void kClosestTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        int k = 10;
+
+        List<VectorFeature> featureList = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(featureList);
+
+        for (int i = 0; i < 200; i++) {
+            Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+            List<Double> expected = featureList.stream()
+                    .map(f -> dimensionAdapter.distanceSquared(f.getPos(), search))
+                    .sorted()
+                    .limit(k)
+                    .collect(Collectors.toList());
+            List<Double> actual = voronoi.getKClosestFeatures(search, k).stream()
+                    .map(WeightedFeature::getDistanceSquared)
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void radiusTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        double radius = 500;
+
+        List<VectorFeature> featureList = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(featureList);
+
+        for (int i = 0; i < 200; i++) {
+            Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+            List<Double> expected = featureList.stream()
+                    .map(f -> dimensionAdapter.distanceSquared(f.getPos(), search))
+                    .filter(d -> d <= radius * radius)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<Double> actual = voronoi.getFeaturesWithin(search, radius).stream()
+                    .map(WeightedFeature::getDistanceSquared)
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void removeTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+
+        List<VectorFeature> featureList = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(featureList);
+        Assertions.assertEquals(5000, voronoi.getFeatureCount());
+
+        // remove half of the features and move some of the remaining ones.
+        List<VectorFeature> remaining = new ArrayList<>(featureList);
+        for (int i = 0; i < 2500; i++) {
+            Assertions.assertTrue(voronoi.removeFeature(remaining.remove(remaining.size() - 1)));
+        }
+        Assertions.assertFalse(voronoi.removeFeature(featureList.get(4999)));
+        for (int i = 0; i < 500; i++) {
+            VectorFeature moved = new VectorFeature(
+                    new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range)));
+            Assertions.assertTrue(voronoi.moveFeature(remaining.get(i), moved));
+            remaining.set(i, moved);
+        }
+        Assertions.assertEquals(2500, voronoi.getFeatureCount());
+
+        for (int i = 0; i < 200; i++) {
+            Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+            double expected = remaining.stream()
+                    .mapToDouble(f -> dimensionAdapter.distanceSquared(f.getPos(), search))
+                    .min().getAsDouble();
+            Assertions.assertEquals(expected, voronoi.getKClosestFeatures(search, 1).get(0).getDistanceSquared());
+        }
+
+        for (VectorFeature feature : remaining) {
+            Assertions.assertTrue(voronoi.removeFeature(feature));
+        }
+        Assertions.assertTrue(voronoi.isEmpty());
+        Assertions.assertTrue(voronoi.getPresentSectors().isEmpty());
+    }
+
+    @Test
+    void ownershipCacheTest() {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 2000;
+
+        List<VectorFeature> featureList = IntStream.range(0, 200)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(featureList);
+
+        VoronoiOwnershipCache<Vector, VectorFeature> cache = new VoronoiOwnershipCache<>(voronoi, 64);
+        for (int i = 0; i < 2000; i++) {
+            Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+            Assertions.assertEquals(voronoi.getClosestFeature(search).getDistanceSquared(),
+                    cache.getClosestFeature(search).getDistanceSquared());
+        }
+        Assertions.assertTrue(cache.size() <= 64);
+
+        // a new feature has to invalidate the cache.
+        Vector search = new Vector(8, 0, 8);
+        cache.getClosestFeature(search);
+        VectorFeature feature = new VectorFeature(new Vector(8, 0, 8));
+        voronoi.addFeature(feature);
+        Assertions.assertSame(feature, cache.getClosestFeature(search).getFeature());
+
+        // so do features which are added in bulk. Use a column which is owned by a single feature.
+        do {
+            search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+        } while (cache.getOwner(search.getX(), search.getZ()) == null);
+        VectorFeature bulkFeature = new VectorFeature(search.clone());
+        voronoi.addFeatures(Arrays.asList(bulkFeature, new VectorFeature(new Vector(1500, 0, 1500))));
+        Assertions.assertSame(bulkFeature, cache.getClosestFeature(search).getFeature());
+    }
+
+    @Test
+    void concurrentTest() throws InterruptedException {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        Voronoi<Vector, VectorFeature> concurrent = Voronoi.create(
+                new VoronoiSettings<>(30000000, new Vector(), 1024, true), dimensionAdapter);
+        List<VectorFeature> featureList = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        concurrent.addFeature(featureList.get(0));
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (writing.get()) {
+                        Vector search = new Vector(random.nextInt(-range, range), 0, random.nextInt(-range, range));
+                        Assertions.assertNotNull(concurrent.getClosestFeature(search));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        featureList.subList(1, featureList.size()).forEach(concurrent::addFeature);
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(featureList.size(), concurrent.getFeatureCount());
+    }
+
     @Test
     void benchmark() {
         ThreadLocalRandom current = ThreadLocalRandom.current();
@@ -0,0 +1,147 @@
+package de.eldoria.eldoutilities.voronoi.snapshot;
+
+import de.eldoria.eldoutilities.voronoi.Voronoi;
+import de.eldoria.eldoutilities.voronoi.impl.VectorDimensionAdapter;
+import de.eldoria.eldoutilities.voronoi.impl.VectorFeature;
+import de.eldoria.eldoutilities.voronoi.util.VoronoiSettings;
+import org.bukkit.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class VoronoiSnapshotTest {
+    private VectorDimensionAdapter dimensionAdapter;
+    private Voronoi<Vector, VectorFeature> voronoi;
+
+    @BeforeEach
+    void build() {
+        dimensionAdapter = new VectorDimensionAdapter();
+        VoronoiSettings<Vector> settings = new VoronoiSettings<>(30000000, new Vector(), 1024);
+        voronoi = Voronoi.create(settings, dimensionAdapter);
+    }
+
+    @Test
+    void emptyTest() throws IOException {
+        Path path = Files.createTempFile("voronoi", ".snapshot");
+        try {
+            VoronoiSnapshotWriter.write(voronoi, f -> 0, path);
+            VoronoiSnapshot snapshot = VoronoiSnapshot.open(path);
+            Assertions.assertTrue(snapshot.isEmpty());
+            Assertions.assertEquals(-1, snapshot.getClosestFeatureIndex(0, 0));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void roundTripTest() throws IOException {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        int range = 5000;
+        List<VectorFeature> features = IntStream.range(0, 5000)
+                .mapToObj(i -> new VectorFeature(
+                        new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range))))
+                .collect(Collectors.toList());
+        voronoi.build(features);
+
+        Map<VectorFeature, Integer> ids = new IdentityHashMap<>();
+        for (int i = 0; i < features.size(); i++) {
+            ids.put(features.get(i), i);
+        }
+
+        Path path = Files.createTempFile("voronoi", ".snapshot");
+        try {
+            VoronoiSnapshotWriter.write(voronoi, ids::get, path);
+            VoronoiSnapshot snapshot = VoronoiSnapshot.open(path);
+            Assertions.assertEquals(features.size(), snapshot.getFeatureCount());
+
+            for (int i = 0; i < 1000; i++) {
+                Vector search = new Vector(current.nextInt(-range, range), 0, current.nextInt(-range, range));
+                double expected = Double.MAX_VALUE;
+                for (VectorFeature feature : features) {
+                    expected = Math.min(expected, dimensionAdapter.distanceSquared(feature.getPos(), search));
+                }
+                VectorFeature closest = snapshot.getClosestFeature(search.getX(), search.getZ(), features::get);
+                Assertions.assertEquals(expected, dimensionAdapter.distanceSquared(closest.getPos(), search));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void invalidFileTest() throws IOException {
+        Path path = Files.createTempFile("voronoi", ".snapshot");
+        try {
+            Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+            Assertions.assertThrows(IOException.class, () -> VoronoiSnapshot.open(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void corruptHeaderTest() throws IOException {
+        Path path = Files.createTempFile("voronoi", ".snapshot");
+        try {
+            VoronoiSnapshotWriter.write(voronoi, f -> 0, path);
+            byte[] valid = Files.readAllBytes(path);
+            int nodes = ByteBuffer.wrap(valid).getInt(8);
+            // node counts which are negative or overflow the offset. The last one wraps around to the valid offset.
+            for (int nodeCount : new int[]{-1, Integer.MAX_VALUE / VoronoiSnapshotWriter.NODE_BYTES + 1,
+                    nodes + (1 << 28)}) {
+                ByteBuffer content = ByteBuffer.wrap(valid.clone());
+                content.putInt(8, nodeCount);
+                Files.write(path, content.array());
+                Assertions.assertThrows(IOException.class, () -> VoronoiSnapshot.open(path));
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void corruptNodeTest() throws IOException {
+        ThreadLocalRandom current = ThreadLocalRandom.current();
+        voronoi.build(IntStream.range(0, 500)
+                .mapToObj(i -> new VectorFeature(new Vector(current.nextInt(-5000, 5000), 0,
+                        current.nextInt(-5000, 5000))))
+                .collect(Collectors.toList()));
+        Path path = Files.createTempFile("voronoi", ".snapshot");
+        try {
+            VoronoiSnapshotWriter.write(voronoi, f -> 0, path);
+            byte[] valid = Files.readAllBytes(path);
+            ByteBuffer buffer = ByteBuffer.wrap(valid);
+            int nodes = buffer.getInt(8);
+            int features = buffer.getInt(12);
+            int root = VoronoiSnapshotWriter.HEADER_BYTES;
+            int leaf = root;
+            while (buffer.getInt(leaf + 32) != VoronoiSnapshotWriter.NONE) {
+                leaf += VoronoiSnapshotWriter.NODE_BYTES;
+            }
+            // root referencing itself, children outside of the nodes and features outside of the features.
+            int[][] patches = {{root + 32, 0}, {root + 36, nodes}, {leaf + 40, -1},
+                    {leaf + 44, features + 1}};
+            for (int[] patch : patches) {
+                ByteBuffer content = ByteBuffer.wrap(valid.clone());
+                content.putInt(patch[0], patch[1]);
+                Files.write(path, content.array());
+                Assertions.assertThrows(IOException.class, () -> VoronoiSnapshot.open(path));
+            }
+            Files.write(path, valid);
+            Assertions.assertEquals(features, VoronoiSnapshot.open(path).getFeatureCount());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}